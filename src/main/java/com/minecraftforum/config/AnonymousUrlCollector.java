@@ -8,6 +8,7 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -38,11 +39,13 @@ public class AnonymousUrlCollector implements ApplicationContextAware {
                     RequestMapping mapping = method.getAnnotation(RequestMapping.class);
                     GetMapping get = method.getAnnotation(GetMapping.class);
                     PostMapping post = method.getAnnotation(PostMapping.class);
+                    PutMapping put = method.getAnnotation(PutMapping.class);
                     String[] methodPaths = new String[]{};
 
                     if (mapping != null) methodPaths = mapping.value();
                     else if (get != null) methodPaths = get.value();
                     else if (post != null) methodPaths = post.value();
+                    else if (put != null) methodPaths = put.value();
 
                     for (String classPath : classPaths) {
                         for (String methodPath : methodPaths) {
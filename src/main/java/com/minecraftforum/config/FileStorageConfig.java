@@ -0,0 +1,69 @@
+package com.minecraftforum.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 文件存储配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "file")
+@Data
+public class FileStorageConfig {
+    
+    public static final String STORAGE_TYPE_OSS = "oss";
+    public static final String STORAGE_TYPE_LOCAL = "local";
+    
+    /**
+     * 存储方式：oss-阿里云OSS，local-本地磁盘
+     */
+    private String storageType = STORAGE_TYPE_OSS;
+    
+    /**
+     * 本地存储根目录（storageType 为 local 时使用）
+     */
+    private String uploadPath = "./uploads";
+    
+    /**
+     * 本地文件的访问路径前缀（storageType 为 local 时使用），如 /uploads
+     */
+    private String accessPath = "/uploads";
+    
+    /**
+     * 直传地址有效期（秒）
+     */
+    private long presignExpireSeconds = 900;
+    
+    /**
+     * 直传文件大小上限（字节），默认 500MB
+     */
+    private long directUploadMaxSize = 500L * 1024 * 1024;
+    
+    /**
+     * 本地存储直传地址的签名密钥（storageType 为 local 时使用），多节点部署时必须一致；为空时启动时随机生成
+     */
+    private String directSecret;
+    
+    /**
+     * 分片上传的分片大小（字节），默认 5MB；OSS 要求除最后一个分片外不小于 100KB
+     */
+    private long chunkSize = 5L * 1024 * 1024;
+    
+    /**
+     * 未完成的分片上传保留时间（小时），期间可以断点续传
+     */
+    private long chunkUploadExpireHours = 24;
+    
+    /**
+     * 本地存储的分片临时目录（storageType 为 local 时使用）
+     */
+    private String chunkTempPath = "./uploads-chunks";
+    
+    /**
+     * 是否使用本地磁盘存储
+     */
+    public boolean isLocal() {
+        return STORAGE_TYPE_LOCAL.equalsIgnoreCase(storageType);
+    }
+}
@@ -27,4 +27,14 @@ public class ForumConfig {
      * 是否开启Elasticsearch搜索：true-开启Elasticsearch搜索，false-不加载Elasticsearch功能
      */
     private Boolean elasticsearchEnabled = true;
+    
+    /**
+     * 分页总数缓存时间（秒），相同筛选条件在该时间内不重复统计总数
+     */
+    private Long pageCountCacheTtl = 30L;
+    
+    /**
+     * 分类计数器过期时间（秒），到期后从数据库重新统计，用于修正计数偏差
+     */
+    private Long categoryCounterTtl = 600L;
 }
@@ -32,6 +32,29 @@ public class OssConfig {
      * 访问域名
      */
     private String domain;
+    
+    /**
+     * 连接池最大连接数
+     */
+    private Integer maxConnections = 128;
+    
+    /**
+     * 建立连接超时时间（毫秒）
+     */
+    private Integer connectionTimeout = 10000;
+    
+    /**
+     * 读取数据超时时间（毫秒）
+     */
+    private Integer socketTimeout = 60000;
+    
+    /**
+     * 从连接池获取连接的超时时间（毫秒）
+     */
+    private Integer connectionRequestTimeout = 5000;
+    
+    /**
+     * 空闲连接保留时间（毫秒），超过后关闭
+     */
+    private Long idleConnectionTime = 60000L;
 }
-
-
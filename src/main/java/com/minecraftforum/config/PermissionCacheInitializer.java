@@ -9,7 +9,7 @@ import org.springframework.stereotype.Component;
 
 /**
  * 权限缓存初始化器
- * 项目启动时自动加载权限数据到Redis
+ * 项目启动时自动加载权限数据并构建接口路由匹配器
  */
 @Slf4j
 @Component
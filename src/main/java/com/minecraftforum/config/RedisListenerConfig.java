@@ -0,0 +1,34 @@
+package com.minecraftforum.config;
+
+import com.minecraftforum.listener.CategoryConfigChangeMessageListener;
+import com.minecraftforum.listener.PermissionChangeMessageListener;
+import com.minecraftforum.service.CategoryConfigCacheService;
+import com.minecraftforum.service.PermissionCacheService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis 消息订阅配置
+ * 用于多节点之间同步本地缓存
+ */
+@Configuration
+public class RedisListenerConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       PermissionChangeMessageListener permissionChangeMessageListener,
+                                                                       CategoryConfigChangeMessageListener categoryConfigChangeMessageListener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        // 权限配置变更通知
+        container.addMessageListener(permissionChangeMessageListener,
+                new ChannelTopic(PermissionCacheService.CHANNEL_PERMISSION_CHANGED));
+        // 分类配置变更通知
+        container.addMessageListener(categoryConfigChangeMessageListener,
+                new ChannelTopic(CategoryConfigCacheService.CHANNEL_CATEGORY_CHANGED));
+        return container;
+    }
+}
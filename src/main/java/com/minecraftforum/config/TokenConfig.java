@@ -27,6 +27,17 @@ public class TokenConfig {
      * false: 只允许一个客户端（新登录会踢掉旧登录）
      */
     private Boolean allowMultipleLogin = true;
+    
+    /**
+     * 本地 Token 会话缓存时间（毫秒），0 表示不缓存
+     * 退出登录、权限变更在其他节点上最多延迟该时间生效
+     */
+    private Long sessionCacheTtl = 5000L;
+    
+    /**
+     * 本地 Token 会话缓存最大条目数
+     */
+    private Integer sessionCacheSize = 10000;
 }
 
 
@@ -497,8 +497,8 @@ public class AdminController {
         rolePermission.setCreateTime(LocalDateTime.now());
         rolePermissionMapper.insert(rolePermission);
 
-        // 发布权限更新事件，异步处理（更新所有拥有该角色的用户）
-        eventPublisher.publishEvent(new UserPermissionUpdateEvent(this, request.getRoleId(), true));
+        // 通知所有节点权限配置已变更（Token 只保存角色，权限随版本号重新解析）
+        permissionCacheService.publishPermissionChange();
 
         return Result.success(null);
     }
@@ -536,8 +536,8 @@ public class AdminController {
         wrapper.eq(RolePermission::getPermissionCode, permission.getCode());
         rolePermissionMapper.delete(wrapper);
 
-        // 发布权限更新事件，异步处理（更新所有拥有该角色的用户）
-        eventPublisher.publishEvent(new UserPermissionUpdateEvent(this, request.getRoleId(), true));
+        // 通知所有节点权限配置已变更（Token 只保存角色，权限随版本号重新解析）
+        permissionCacheService.publishPermissionChange();
 
         return Result.success(null);
     }
@@ -608,8 +608,8 @@ public class AdminController {
                 rolePermissionMapper.delete(deleteWrapper);
             }
 
-            // 发布权限更新事件，异步处理（更新所有拥有该角色的用户）
-            eventPublisher.publishEvent(new UserPermissionUpdateEvent(this, request.getRoleId(), true));
+            // 通知所有节点权限配置已变更（Token 只保存角色，权限随版本号重新解析）
+            permissionCacheService.publishPermissionChange();
 
             return Result.success(null);
         } catch (RuntimeException e) {
@@ -816,9 +816,6 @@ public class AdminController {
         permission.setUpdateTime(LocalDateTime.now());
         Permission created = permissionService.createPermission(permission);
         
-        // 刷新权限缓存
-        permissionCacheService.refreshPermissionCache();
-        
         return Result.success(created);
     }
 
@@ -850,9 +847,6 @@ public class AdminController {
         
         Permission updated = permissionService.updatePermission(permission);
         
-        // 刷新权限缓存
-        permissionCacheService.refreshPermissionCache();
-        
         return Result.success(updated);
     }
 
@@ -870,9 +864,6 @@ public class AdminController {
 
         permissionService.deletePermission(request.getId());
         
-        // 刷新权限缓存
-        permissionCacheService.refreshPermissionCache();
-        
         return Result.success(null);
     }
 
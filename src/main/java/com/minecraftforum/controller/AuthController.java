@@ -4,9 +4,8 @@ import com.minecraftforum.common.Result;
 import com.minecraftforum.config.custom.annotations.AnonymousAccess;
 import com.minecraftforum.dto.LoginRequest;
 import com.minecraftforum.dto.RegisterRequest;
-import com.minecraftforum.entity.Permission;
 import com.minecraftforum.entity.User;
-import com.minecraftforum.service.PermissionService;
+import com.minecraftforum.service.RolePermissionCacheService;
 import com.minecraftforum.service.UserService;
 import com.minecraftforum.util.TokenUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -21,7 +20,6 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 认证控制器
@@ -35,7 +33,7 @@ public class AuthController {
     
     private final UserService userService;
     private final TokenUtil tokenUtil;
-    private final PermissionService permissionService;
+    private final RolePermissionCacheService rolePermissionCacheService;
     
     /**
      * 从请求中获取当前Token
@@ -70,14 +68,11 @@ public class AuthController {
         // 清除密码信息，确保不会返回给前端
         user.clearPassword();
         
-        // 获取用户的所有权限（新注册用户可能没有权限，但为了统一处理，仍然获取）
-        List<Permission> permissions = permissionService.getUserPermissions(user.getId());
-        List<String> permissionCodes = permissions.stream()
-                .map(Permission::getCode)
-                .collect(Collectors.toList());
+        // 获取用户的角色（新注册用户可能没有角色，但为了统一处理，仍然获取）
+        List<Long> roleIds = rolePermissionCacheService.getUserRoleIds(user.getId());
         
-        // 生成包含权限的Token（使用 UUID 和 Redis）
-        String token = tokenUtil.generateToken(user.getId(), user.getUsername(), permissionCodes);
+        // 生成包含角色的Token（使用 UUID 和 Redis）
+        String token = tokenUtil.generateToken(user.getId(), user.getUsername(), roleIds);
         
         Map<String, Object> data = new HashMap<>();
         data.put("token", token);
@@ -136,23 +131,20 @@ public class AuthController {
         // 清除密码信息，确保不会返回给前端
         user.clearPassword();
         
-        // 获取用户的所有权限
-        List<Permission> permissions = permissionService.getUserPermissions(user.getId());
-        List<String> permissionCodes = permissions.stream()
-                .map(Permission::getCode)
-                .collect(Collectors.toList());
+        // 获取用户的最新角色
+        List<Long> roleIds = rolePermissionCacheService.getUserRoleIds(user.getId());
         
         // 获取当前请求的 Token（UUID）
         String currentToken = getCurrentToken();
         String newToken;
         
-        // 如果当前Token有效，更新其权限（不生成新Token，保持UUID不变）
+        // 如果当前Token有效，更新其角色（不生成新Token，保持UUID不变）
         if (currentToken != null && tokenUtil.isTokenValid(currentToken)) {
-            tokenUtil.updateTokenPermissions(currentToken, permissionCodes);
+            tokenUtil.updateTokenRoles(currentToken, roleIds);
             newToken = currentToken;
         } else {
             // 如果当前Token无效，生成新Token
-            newToken = tokenUtil.generateToken(user.getId(), user.getUsername(), permissionCodes);
+            newToken = tokenUtil.generateToken(user.getId(), user.getUsername(), roleIds);
         }
         
         Map<String, Object> data = new HashMap<>();
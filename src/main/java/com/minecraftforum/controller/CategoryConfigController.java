@@ -10,7 +10,10 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -29,15 +32,25 @@ public class CategoryConfigController {
     
     /**
      * 获取启用的分类配置（公开接口）
+     * 响应带 ETag，浏览器携带 If-None-Match 重新验证时内容未变化返回 304
      */
     @Operation(summary = "获取启用的分类配置", description = "获取指定类型下所有启用的分类配置，用于前端展示")
     @GetMapping("/enabled")
     @AnonymousAccess
-    public Result<List<CategoryConfig>> getEnabledConfigs(
+    public ResponseEntity<Result<List<CategoryConfig>>> getEnabledConfigs(
             @Parameter(description = "分类类型：RESOURCE-资源分类，FORUM-论坛分类", example = "RESOURCE")
-            @RequestParam(defaultValue = "RESOURCE") String type) {
+            @RequestParam(defaultValue = "RESOURCE") String type,
+            WebRequest webRequest) {
+        String eTag = categoryConfigService.getEnabledConfigsETag(type);
+        if (webRequest.checkNotModified(eTag)) {
+            // 已设置 304 状态和 ETag 响应头
+            return null;
+        }
         List<CategoryConfig> configs = categoryConfigService.getEnabledConfigs(type);
-        return Result.success(configs);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(Result.success(configs));
     }
     
     /**
@@ -4,24 +4,45 @@ import com.minecraftforum.common.Result;
 import com.minecraftforum.config.custom.annotations.AnonymousAccess;
 import com.minecraftforum.entity.SysFile;
 import com.minecraftforum.service.FileService;
+import com.minecraftforum.dto.ChunkUploadInitRequest;
+import com.minecraftforum.dto.ChunkUploadRequest;
+import com.minecraftforum.dto.CompleteUploadRequest;
 import com.minecraftforum.dto.DeleteRequest;
+import com.minecraftforum.dto.DirectUploadRequest;
 import com.minecraftforum.util.ResourceUtil;
 import com.minecraftforum.util.SecurityUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +50,7 @@ import java.util.Map;
 /**
  * 文件上传控制器
  */
+@Slf4j
 @Tag(name = "文件管理", description = "文件上传、下载等接口")
 @RestController
 @RequestMapping("/api/files")
@@ -36,6 +58,14 @@ import java.util.Map;
 @SecurityRequirement(name = "Bearer Authentication")
 public class FileController {
     
+    /**
+     * Tomcat sendfile 请求属性
+     */
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    
     private final FileService fileService;
     private final SecurityUtil securityUtil;
     
@@ -120,6 +150,183 @@ public class FileController {
         }
     }
     
+    /**
+     * 申请直传上传
+     * 大文件由客户端直接上传到存储，应用服务器只处理文件信息
+     */
+    @Operation(summary = "申请直传上传", description = "返回直传上传地址和上传凭证，客户端使用 PUT 请求把文件直接上传到存储后调用完成直传接口")
+    @PostMapping("/direct/upload")
+    public Result<Map<String, Object>> createDirectUpload(@RequestBody DirectUploadRequest request) {
+        Long userId = securityUtil.getCurrentUserId();
+        try {
+            return Result.success(fileService.createDirectUpload(request, userId));
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            return Result.error(500, "申请上传失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 完成直传上传
+     */
+    @Operation(summary = "完成直传上传", description = "文件上传到存储后，凭上传凭证登记文件信息")
+    @PostMapping("/direct/complete")
+    public Result<Map<String, Object>> completeDirectUpload(@RequestBody CompleteUploadRequest request) {
+        Long userId = securityUtil.getCurrentUserId();
+        try {
+            SysFile sysFile = fileService.completeDirectUpload(request.getTicket(), userId);
+            
+            // 与普通上传返回相同的格式
+            Map<String, Object> result = new HashMap<>();
+            result.put("url", sysFile.getFileUrl());
+            result.put("name", sysFile.getOriginalName());
+            result.put("type", sysFile.getFileType());
+            result.put("size", sysFile.getFileSize());
+            result.put("id", sysFile.getId());
+            
+            return Result.success(result);
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            return Result.error(500, "文件登记失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取直连下载地址
+     * 接口本身没有在权限表中配置，这里显式检查下载权限
+     */
+    @Operation(summary = "获取直连下载地址", description = "返回有时效的直连下载地址，客户端直接从存储下载，需要resource:download权限")
+    @GetMapping("/direct/download")
+    public Result<Map<String, Object>> createDirectDownload(
+            @Parameter(description = "文件ID", required = true)
+            @RequestParam Long id) {
+        
+        if (!securityUtil.hasPermission("resource:download")) {
+            return Result.error(403, "无权限访问");
+        }
+        
+        SysFile sysFile = fileService.getFileById(id);
+        if (sysFile == null) {
+            return Result.error(404, "文件不存在");
+        }
+        
+        try {
+            return Result.success(fileService.createDirectDownload(sysFile));
+        } catch (Exception e) {
+            return Result.error(500, "获取下载地址失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 初始化分片上传
+     * 大文件按分片分别上传，网络中断后只需重传未完成的分片
+     */
+    @Operation(summary = "初始化分片上传", description = "返回上传ID、分片大小、分片总数和已接收的分片；提供文件MD5时可继续之前未完成的上传")
+    @PostMapping("/chunk/init")
+    public Result<Map<String, Object>> initChunkUpload(@RequestBody ChunkUploadInitRequest request) {
+        Long userId = securityUtil.getCurrentUserId();
+        try {
+            return Result.success(fileService.initChunkUpload(request, userId));
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            return Result.error(500, "初始化分片上传失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 上传分片
+     * 请求体即分片内容（application/octet-stream），不同分片可以并行上传，已接收的分片直接跳过
+     */
+    @Operation(summary = "上传分片", description = "请求体为分片内容，分片序号从 1 开始；除最后一个分片外，分片大小必须等于初始化时返回的分片大小")
+    @PutMapping("/chunk")
+    public Result<Map<String, Object>> uploadChunk(
+            @Parameter(description = "上传ID", required = true)
+            @RequestParam String uploadId,
+            @Parameter(description = "分片序号", required = true)
+            @RequestParam Integer partNumber,
+            HttpServletRequest request) {
+        
+        // 必须声明分片大小，否则无法在写入存储前校验（分块传输时存储只读取预期的字节数，多余内容会被忽略）
+        if (request.getContentLengthLong() < 0) {
+            return Result.error(411, "缺少 Content-Length 请求头");
+        }
+        
+        Long userId = securityUtil.getCurrentUserId();
+        try (InputStream inputStream = request.getInputStream()) {
+            boolean stored = fileService.uploadChunk(uploadId, partNumber, inputStream, request.getContentLengthLong(), userId);
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("partNumber", partNumber);
+            result.put("skipped", !stored);
+            return Result.success(result);
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            return Result.error(500, "分片上传失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询分片上传进度
+     */
+    @Operation(summary = "查询分片上传进度", description = "返回已接收的分片序号，断点续传时只需上传缺少的分片")
+    @GetMapping("/chunk/status")
+    public Result<Map<String, Object>> getChunkUploadStatus(
+            @Parameter(description = "上传ID", required = true)
+            @RequestParam String uploadId) {
+        
+        Long userId = securityUtil.getCurrentUserId();
+        try {
+            return Result.success(fileService.getChunkUploadStatus(uploadId, userId));
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+    }
+    
+    /**
+     * 完成分片上传
+     */
+    @Operation(summary = "完成分片上传", description = "全部分片上传后合并为文件并登记文件信息")
+    @PostMapping("/chunk/complete")
+    public Result<Map<String, Object>> completeChunkUpload(@RequestBody ChunkUploadRequest request) {
+        Long userId = securityUtil.getCurrentUserId();
+        try {
+            SysFile sysFile = fileService.completeChunkUpload(request.getUploadId(), userId);
+            
+            // 与普通上传返回相同的格式
+            Map<String, Object> result = new HashMap<>();
+            result.put("url", sysFile.getFileUrl());
+            result.put("name", sysFile.getOriginalName());
+            result.put("type", sysFile.getFileType());
+            result.put("size", sysFile.getFileSize());
+            result.put("id", sysFile.getId());
+            
+            return Result.success(result);
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        } catch (Exception e) {
+            return Result.error(500, "文件合并失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 取消分片上传
+     */
+    @Operation(summary = "取消分片上传", description = "取消上传并删除已上传的分片")
+    @DeleteMapping("/chunk")
+    public Result<Void> abortChunkUpload(@RequestBody ChunkUploadRequest request) {
+        Long userId = securityUtil.getCurrentUserId();
+        try {
+            fileService.abortChunkUpload(request.getUploadId(), userId);
+            return Result.success(null);
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+    }
+    
     /**
      * 获取文件信息
      */
@@ -175,72 +382,117 @@ public class FileController {
     /**
      * 下载文件
      * 权限检查由 PermissionInterceptor 统一处理
+     * 支持 Range 断点续传（单个或多个区间），以及 If-None-Match / If-Modified-Since 条件请求，
+     * ETag 取自文件内容的MD5；If-Range 与当前文件不一致时返回完整文件
      */
-    @Operation(summary = "下载文件", description = "从OSS下载文件，需要resource:download权限（由PermissionInterceptor统一检查）")
+    @Operation(summary = "下载文件", description = "从文件存储下载文件，支持断点续传和条件请求，需要resource:download权限（由PermissionInterceptor统一检查）")
     @GetMapping("/download")
-    public ResponseEntity<InputStreamResource> downloadFile(
+    public ResponseEntity<?> downloadFile(
             @Parameter(description = "文件ID", required = true)
-            @RequestParam Long id) {
+            @RequestParam Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         
         if (id == null) {
             return ResponseEntity.status(400).build();
         }
         
-        com.aliyun.oss.OSS ossClient = null;
+        SysFile sysFile = fileService.getFileById(id);
+        if (sysFile == null) {
+            return ResponseEntity.status(404).build();
+        }
+        
         InputStream inputStream = null;
         
         try {
-            // 从OSS获取文件流
-            Map<String, Object> fileData = fileService.downloadFile(id);
-            inputStream = (InputStream) fileData.get("inputStream");
-            String fileName = (String) fileData.get("fileName");
-            Long fileSize = (Long) fileData.get("fileSize");
-            String contentType = (String) fileData.get("contentType");
-            ossClient = (com.aliyun.oss.OSS) fileData.get("ossClient");
+            Path filePath = fileService.getLocalFilePath(sysFile);
+            long fileSize = filePath != null ? Files.size(filePath)
+                    : (sysFile.getFileSize() != null ? sysFile.getFileSize() : 0L);
+            
+            // 条件请求：内容未变化时返回 304（同时写入 ETag、Last-Modified 响应头）
+            String eTag = sysFile.getContentHash() != null ? "\"" + sysFile.getContentHash() + "\"" : null;
+            long lastModified = getLastModified(sysFile);
+            if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+                return null;
+            }
+            
+            String contentType = sysFile.getFileType() != null ? sysFile.getFileType() : "application/octet-stream";
             
             // 设置响应头
             HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(contentType != null ? contentType : "application/octet-stream"));
-            headers.setContentLength(fileSize);
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
             
             // 对文件名进行URL编码，支持中文文件名
-            String encodedFileName = URLEncoder.encode(fileName, StandardCharsets.UTF_8)
+            String encodedFileName = URLEncoder.encode(sysFile.getOriginalName(), StandardCharsets.UTF_8)
                     .replaceAll("\\+", "%20");
             headers.setContentDispositionFormData("attachment", encodedFileName);
             
-            // 创建响应实体，在关闭时关闭OSS客户端
-            final com.aliyun.oss.OSS finalOssClient = ossClient;
-            final InputStream finalInputStream = inputStream;
+            List<HttpRange> ranges = parseRanges(request, eTag, lastModified);
+            if (ranges.isEmpty()) {
+                headers.setContentType(MediaType.parseMediaType(contentType));
+                headers.setContentLength(fileSize);
+                if (sendFile(request, filePath, 0, fileSize - 1)) {
+                    return ResponseEntity.ok().headers(headers).build();
+                }
+                // 本地文件交给 Spring 按文件读取；请求带 Range（If-Range 不匹配）时 Spring 会自行分段，此时改用输入流
+                if (filePath != null && request.getHeader(HttpHeaders.RANGE) == null) {
+                    return ResponseEntity.ok()
+                            .headers(headers)
+                            .body(new FileSystemResource(filePath));
+                }
+                // 输入流在响应写出完成后由 Spring 关闭
+                inputStream = fileService.openFileStream(sysFile, 0, fileSize - 1);
+                return ResponseEntity.ok()
+                        .headers(headers)
+                        .body(new InputStreamResource(inputStream));
+            }
+            
+            // 区间超出文件范围或总长度超过文件大小时返回 416
+            List<long[]> byteRanges = toByteRanges(ranges, fileSize);
+            if (byteRanges == null) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize)
+                        .build();
+            }
             
-            // 创建自定义的 InputStreamResource，实现 Closeable 接口
-            InputStreamResource resource = new InputStreamResource(inputStream) {
-                // 实现 Closeable 接口的 close 方法（不添加 @Override，因为父类可能没有此方法）
-                public void close() throws java.io.IOException {
-                    try {
-                        // 关闭输入流
-                        if (finalInputStream != null) {
-                            finalInputStream.close();
-                        }
-                    } finally {
-                        // 关闭输入流时，也关闭OSS客户端
-                        if (finalOssClient != null) {
-                            finalOssClient.shutdown();
-                        }
-                    }
+            if (byteRanges.size() == 1) {
+                long start = byteRanges.get(0)[0];
+                long end = byteRanges.get(0)[1];
+                headers.setContentType(MediaType.parseMediaType(contentType));
+                headers.setContentLength(end - start + 1);
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize);
+                if (sendFile(request, filePath, start, end)) {
+                    return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).build();
+                }
+                if (filePath != null) {
+                    // Content-Range、Content-Length 由 ResourceRegionHttpMessageConverter 写入
+                    headers.remove(HttpHeaders.CONTENT_RANGE);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                            .headers(headers)
+                            .body(new ResourceRegion(new FileSystemResource(filePath), start, end - start + 1));
                 }
-            };
+                // 只从存储读取请求的区间
+                inputStream = fileService.openFileStream(sysFile, start, end);
+                return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .headers(headers)
+                        .body(new InputStreamResource(inputStream));
+            }
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(resource);
+            // 多个区间：multipart/byteranges，逐个区间从存储读取后直接写入响应
+            headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            writeByteRanges(response, sysFile, contentType, fileSize, byteRanges);
+            return null;
                     
         } catch (IllegalArgumentException e) {
-            // 关闭已创建的流和客户端
-            ResourceUtil.closeResources(inputStream, ossClient);
+            ResourceUtil.closeQuietly(inputStream);
             return ResponseEntity.status(404).build();
         } catch (Exception e) {
-            // 关闭已创建的流和客户端
-            ResourceUtil.closeResources(inputStream, ossClient);
+            ResourceUtil.closeQuietly(inputStream);
+            if (response.isCommitted()) {
+                log.warn("文件下载中断: id={}, error={}", id, e.getMessage());
+                return null;
+            }
             return ResponseEntity.status(500).build();
         }
     }
@@ -266,5 +518,115 @@ public class FileController {
             return Result.error(500, "文件删除失败: " + e.getMessage());
         }
     }
+    
+    /**
+     * 文件的最后修改时间（毫秒），未知时返回 -1
+     */
+    private long getLastModified(SysFile sysFile) {
+        LocalDateTime time = sysFile.getUpdateTime() != null ? sysFile.getUpdateTime() : sysFile.getCreateTime();
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+    
+    /**
+     * 解析 Range 请求头，返回空列表表示返回完整文件
+     * Range 格式错误时忽略；携带 If-Range 且与当前文件不一致时忽略（文件已变化，需要重新下载完整文件）
+     */
+    private List<HttpRange> parseRanges(HttpServletRequest request, String eTag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !isIfRangeMatched(request, eTag, lastModified)) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+    
+    /**
+     * If-Range 校验：ETag 只做强比较，日期需与最后修改时间（精确到秒）一致
+     */
+    private boolean isIfRangeMatched(HttpServletRequest request, String eTag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return eTag != null && eTag.equals(ifRange);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return lastModified >= 0 && date / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 区间转换为 [起始位置, 结束位置]，无法满足时返回 null
+     */
+    private List<long[]> toByteRanges(List<HttpRange> ranges, long fileSize) {
+        List<long[]> byteRanges = new ArrayList<>(ranges.size());
+        long total = 0;
+        try {
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(fileSize);
+                long end = range.getRangeEnd(fileSize);
+                byteRanges.add(new long[]{start, end});
+                total += end - start + 1;
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // 与 Spring 处理静态资源一致：区间总长度不能超过文件大小，避免重叠区间放大响应
+        return total > fileSize ? null : byteRanges;
+    }
+    
+    /**
+     * 本地文件且容器支持 sendfile 时，交给容器由内核直接从文件发送到套接字，文件内容不经过 JVM 堆
+     * @return 是否已交给容器发送
+     */
+    private boolean sendFile(HttpServletRequest request, Path filePath, long start, long end) {
+        if (filePath == null || end < start || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME_ATTR, filePath.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START_ATTR, start);
+        request.setAttribute(SENDFILE_END_ATTR, end + 1); // sendfile 的结束位置不包含
+        return true;
+    }
+    
+    /**
+     * 写出 multipart/byteranges 响应，每个区间单独从存储读取
+     */
+    private void writeByteRanges(HttpServletResponse response, SysFile sysFile, String contentType,
+                                 long fileSize, List<long[]> byteRanges) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(byteRanges.size());
+        byte[] closeDelimiter = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        long contentLength = closeDelimiter.length;
+        for (long[] range : byteRanges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + fileSize + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range[1] - range[0] + 1;
+        }
+        
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        
+        OutputStream out = response.getOutputStream();
+        for (int i = 0; i < byteRanges.size(); i++) {
+            long[] range = byteRanges.get(i);
+            out.write(partHeaders.get(i));
+            try (InputStream in = fileService.openFileStream(sysFile, range[0], range[1])) {
+                StreamUtils.copy(in, out);
+            }
+        }
+        out.write(closeDelimiter);
+        out.flush();
+    }
 }
-
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.minecraftforum.common.Result;
 import com.minecraftforum.config.custom.annotations.AnonymousAccess;
 import com.minecraftforum.dto.CommentDTO;
+import com.minecraftforum.dto.CursorPage;
 import com.minecraftforum.dto.ForumPostDTO;
 import com.minecraftforum.dto.ReplyDTO;
 import com.minecraftforum.dto.UpdatePostRequest;
@@ -78,6 +79,30 @@ public class ForumController {
         return Result.success(data);
     }
 
+    /**
+     * 游标分页获取帖子列表
+     */
+    @Operation(summary = "游标分页获取帖子列表", description = "按 (排序字段, ID) 游标翻页，不统计总数，适用于无限滚动；下一页传入上一页返回的 nextCursor")
+    @GetMapping("/posts/feed")
+    @AnonymousAccess
+    public Result<CursorPage<ForumPostDTO>> getPostFeed(
+            @Parameter(description = "游标：上一页返回的 nextCursor，第一页不传")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量", example = "10")
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @Parameter(description = "分类代码")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "搜索关键词（标题、内容）")
+            @RequestParam(required = false) String keyword,
+            @Parameter(description = "作者关键词（用户名、昵称、邮箱）")
+            @RequestParam(required = false) String authorKeyword,
+            @Parameter(description = "排序方式：createTime-发布时间，viewCount-浏览量，likeCount-点赞量")
+            @RequestParam(required = false) String sortBy) {
+
+        CursorPage<ForumPostDTO> result = forumService.getPostFeed(cursor, pageSize, category, keyword, authorKeyword, sortBy);
+        return Result.success(result);
+    }
+
     /**
      * 获取帖子详情
      */
@@ -421,18 +446,22 @@ public class ForumController {
     /**
      * 获取评论的子回复列表
      */
-    @Operation(summary = "获取评论的子回复列表", description = "获取指定评论的所有子回复")
+    @Operation(summary = "获取评论的子回复列表", description = "获取指定评论的子回复，传入 pageSize 时按游标分页，下一页以本页最后一条回复ID作为 cursor")
     @GetMapping("/comments/replies")
     @AnonymousAccess
     public Result<List<ReplyDTO>> getRepliesByCommentId(
             @Parameter(description = "评论ID", required = true)
-            @RequestParam Long commentId) {
+            @RequestParam Long commentId,
+            @Parameter(description = "游标：上一页最后一条回复ID")
+            @RequestParam(required = false) Long cursor,
+            @Parameter(description = "每页数量，不传则返回全部回复", example = "20")
+            @RequestParam(required = false) Integer pageSize) {
         
         if (commentId == null) {
             return Result.error(400, "评论ID不能为空");
         }
         
-        List<ReplyDTO> replies = forumService.getRepliesByCommentId(commentId);
+        List<ReplyDTO> replies = forumService.getRepliesByCommentId(commentId, cursor, pageSize);
         return Result.success(replies);
     }
 }
@@ -0,0 +1,92 @@
+package com.minecraftforum.controller;
+
+import com.minecraftforum.config.FileStorageConfig;
+import com.minecraftforum.service.impl.LocalStorageBackend;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * 本地存储文件访问控制器（file.storage-type=local）
+ * 处理 file.access-path 下的公开文件地址，代替静态资源映射：
+ * 文件与接口同源，除常见位图外一律以附件 + application/octet-stream 返回，
+ * 用户上传的 html、svg 等文件不会被浏览器当作页面执行
+ */
+@Slf4j
+@Tag(name = "本地存储文件访问", description = "本地存储的公开文件地址")
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "file", name = "storage-type", havingValue = FileStorageConfig.STORAGE_TYPE_LOCAL)
+public class LocalFileAccessController {
+
+    /**
+     * 允许浏览器直接显示的文件类型（不包含 svg，svg 可以携带脚本）
+     */
+    private static final Set<MediaType> INLINE_TYPES = Set.of(
+            MediaType.IMAGE_PNG,
+            MediaType.IMAGE_JPEG,
+            MediaType.IMAGE_GIF,
+            MediaType.parseMediaType("image/webp"),
+            MediaType.parseMediaType("image/bmp"));
+
+    private final LocalStorageBackend localStorageBackend;
+
+    /**
+     * 访问文件
+     * 响应体为文件资源，Range 和 If-Modified-Since 由 Spring 处理
+     */
+    @Operation(summary = "访问文件", description = "本地存储的公开文件地址，匿名访问")
+    @GetMapping("${file.access-path:/uploads}/{*key}")
+    public ResponseEntity<Resource> access(@Parameter(description = "对象键") @PathVariable String key) {
+        String objectKey = key.startsWith("/") ? key.substring(1) : key;
+        try {
+            Path path = localStorageBackend.getLocalPath(objectKey);
+            if (path == null || path.getFileName().toString().startsWith(".")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+
+            String fileName = path.getFileName().toString();
+            MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            ContentDisposition disposition;
+            if (INLINE_TYPES.contains(mediaType)) {
+                disposition = ContentDisposition.inline().build();
+            } else {
+                mediaType = MediaType.APPLICATION_OCTET_STREAM;
+                disposition = ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build();
+            }
+
+            return ResponseEntity.ok()
+                    .contentType(mediaType)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                    .header("X-Content-Type-Options", "nosniff")
+                    .header("Content-Security-Policy", "default-src 'none'; sandbox")
+                    .lastModified(Files.getLastModifiedTime(path).toMillis())
+                    .body(new FileSystemResource(path));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IOException e) {
+            log.error("文件访问失败: key={}, error={}", objectKey, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.minecraftforum.controller;
+
+import com.minecraftforum.config.FileStorageConfig;
+import com.minecraftforum.config.custom.annotations.AnonymousAccess;
+import com.minecraftforum.service.impl.LocalStorageBackend;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 本地存储直传控制器（file.storage-type=local）
+ * 处理 LocalStorageBackend 签发的直传地址，代替 OSS 的预签名地址：
+ * 请求凭地址中的签名和过期时间访问，不需要登录，也不经过文件业务逻辑
+ */
+@Slf4j
+@Tag(name = "本地存储直传", description = "本地存储的直传上传、下载地址")
+@RestController
+@RequestMapping("/api/files")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "file", name = "storage-type", havingValue = FileStorageConfig.STORAGE_TYPE_LOCAL)
+public class LocalStorageController {
+    
+    private final LocalStorageBackend localStorageBackend;
+    private final FileStorageConfig fileStorageConfig;
+    
+    /**
+     * 直传上传：请求体即文件内容
+     */
+    @Operation(summary = "直传上传", description = "使用直传地址上传文件内容，Content-Type 必须与申请时一致，文件已存在时返回 409")
+    @PutMapping("/direct")
+    @AnonymousAccess
+    public ResponseEntity<Void> upload(
+            @Parameter(description = "对象键", required = true) @RequestParam String key,
+            @Parameter(description = "过期时间（秒级时间戳）", required = true) @RequestParam long expires,
+            @Parameter(description = "签名", required = true) @RequestParam String signature,
+            HttpServletRequest request) {
+        
+        if (!localStorageBackend.verifySignature("PUT", key, expires, request.getContentType(), signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).build();
+        }
+        if (contentLength > fileStorageConfig.getDirectUploadMaxSize()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        
+        try (InputStream inputStream = request.getInputStream()) {
+            localStorageBackend.uploadIfAbsent(key, inputStream);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IllegalStateException e) {
+            // 同一直传地址只能写入一次，已上传的文件不能被替换
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("直传上传失败: key={}, error={}", key, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * 直传下载
+     * 响应体为文件资源，Range 和 If-Modified-Since 由 Spring 处理
+     */
+    @Operation(summary = "直传下载", description = "使用直连下载地址下载文件，支持断点续传")
+    @GetMapping("/direct")
+    @AnonymousAccess
+    public ResponseEntity<Resource> download(
+            @Parameter(description = "对象键", required = true) @RequestParam String key,
+            @Parameter(description = "下载保存的文件名") @RequestParam(defaultValue = "") String name,
+            @Parameter(description = "过期时间（秒级时间戳）", required = true) @RequestParam long expires,
+            @Parameter(description = "签名", required = true) @RequestParam String signature) {
+        
+        if (!localStorageBackend.verifySignature("GET", key, expires, name, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        try {
+            Path path = localStorageBackend.getLocalPath(key);
+            if (path == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            String fileName = name.isEmpty() ? path.getFileName().toString() : name;
+            return ResponseEntity.ok()
+                    .contentType(MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(fileName, StandardCharsets.UTF_8)
+                            .build()
+                            .toString())
+                    .lastModified(Files.getLastModifiedTime(path).toMillis())
+                    .body(new FileSystemResource(path));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IOException e) {
+            log.error("直传下载失败: key={}, error={}", key, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
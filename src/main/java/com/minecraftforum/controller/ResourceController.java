@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.minecraftforum.common.Result;
 import com.minecraftforum.config.custom.annotations.AnonymousAccess;
+import com.minecraftforum.dto.CursorPage;
 import com.minecraftforum.dto.ResourceDTO;
 import com.minecraftforum.entity.Resource;
 import com.minecraftforum.entity.ResourceTag;
@@ -72,6 +73,30 @@ public class ResourceController {
         return Result.success(data);
     }
 
+    /**
+     * 游标分页获取资源列表
+     */
+    @Operation(summary = "游标分页获取资源列表", description = "按 (排序字段, ID) 游标翻页，不统计总数，适用于无限滚动；下一页传入上一页返回的 nextCursor")
+    @GetMapping("/feed")
+    @AnonymousAccess
+    public Result<CursorPage<ResourceDTO>> getResourceFeed(
+            @Parameter(description = "游标：上一页返回的 nextCursor，第一页不传")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量", example = "10")
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @Parameter(description = "分类代码")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "搜索关键词")
+            @RequestParam(required = false) String keyword,
+            @Parameter(description = "作者ID")
+            @RequestParam(required = false) Long authorId,
+            @Parameter(description = "排序方式：createTime-发布时间，downloadCount-下载量，likeCount-点赞量")
+            @RequestParam(required = false) String sortBy) {
+
+        CursorPage<ResourceDTO> result = resourceService.getResourceFeed(cursor, pageSize, category, keyword, authorId, sortBy);
+        return Result.success(result);
+    }
+
     /**
      * 获取资源详情
      */
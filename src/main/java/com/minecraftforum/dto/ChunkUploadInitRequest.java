@@ -0,0 +1,34 @@
+package com.minecraftforum.dto;
+
+import lombok.Data;
+
+/**
+ * 初始化分片上传请求DTO
+ */
+@Data
+public class ChunkUploadInitRequest {
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+    
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+    
+    /**
+     * 文件类型（例如：application/zip）
+     */
+    private String contentType;
+    
+    /**
+     * 所属资源ID（可选）
+     */
+    private Long resourceId;
+    
+    /**
+     * 文件内容的MD5（可选），相同用户再次上传同一文件时继续未完成的分片上传
+     */
+    private String fileHash;
+}
@@ -0,0 +1,11 @@
+package com.minecraftforum.dto;
+
+import lombok.Data;
+
+/**
+ * 分片上传操作请求DTO（完成、取消）
+ */
+@Data
+public class ChunkUploadRequest {
+    private String uploadId;
+}
@@ -0,0 +1,14 @@
+package com.minecraftforum.dto;
+
+import lombok.Data;
+
+/**
+ * 完成直传上传请求DTO
+ */
+@Data
+public class CompleteUploadRequest {
+    /**
+     * 申请直传时返回的上传凭证
+     */
+    private String ticket;
+}
@@ -0,0 +1,36 @@
+package com.minecraftforum.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * 不统计总数，客户端以 nextCursor 请求下一页
+ */
+@Data
+public class CursorPage<T> {
+    
+    /**
+     * 当前页数据
+     */
+    private List<T> list;
+    
+    /**
+     * 下一页游标，没有更多数据时为 null
+     */
+    private String nextCursor;
+    
+    /**
+     * 是否还有更多数据
+     */
+    private Boolean hasMore;
+    
+    public static <T> CursorPage<T> of(List<T> list, String nextCursor) {
+        CursorPage<T> page = new CursorPage<>();
+        page.setList(list);
+        page.setNextCursor(nextCursor);
+        page.setHasMore(nextCursor != null);
+        return page;
+    }
+}
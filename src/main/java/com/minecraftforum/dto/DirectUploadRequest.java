@@ -0,0 +1,29 @@
+package com.minecraftforum.dto;
+
+import lombok.Data;
+
+/**
+ * 申请直传上传请求DTO
+ */
+@Data
+public class DirectUploadRequest {
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+    
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+    
+    /**
+     * 文件类型（例如：image/png），上传时请求头 Content-Type 必须与此一致
+     */
+    private String contentType;
+    
+    /**
+     * 所属资源ID（可选）
+     */
+    private Long resourceId;
+}
@@ -43,6 +43,11 @@ public class SysFile {
      */
     private String fileType;
     
+    /**
+     * 文件内容的MD5（十六进制），作为下载响应的 ETag
+     */
+    private String contentHash;
+    
     /**
      * 创建人
      */
@@ -0,0 +1,15 @@
+package com.minecraftforum.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 分类配置变更事件
+ * 本节点的分类配置缓存失效后发布（包括其他节点通过 Redis 通知的变更），
+ * 用于清理依赖分类配置的本地缓存
+ */
+public class CategoryConfigChangedEvent extends ApplicationEvent {
+    
+    public CategoryConfigChangedEvent(Object source) {
+        super(source);
+    }
+}
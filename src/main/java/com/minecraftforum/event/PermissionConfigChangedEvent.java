@@ -0,0 +1,23 @@
+package com.minecraftforum.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 权限配置变更事件
+ * 本节点的权限路由匹配器重建完成后发布（包括其他节点通过 Redis 通知的变更），
+ * 用于清理依赖权限配置的本地缓存
+ */
+@Getter
+public class PermissionConfigChangedEvent extends ApplicationEvent {
+    
+    /**
+     * 重建后的权限配置版本号
+     */
+    private final long version;
+    
+    public PermissionConfigChangedEvent(Object source, long version) {
+        super(source);
+        this.version = version;
+    }
+}
@@ -2,7 +2,7 @@ package com.minecraftforum.interceptor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.minecraftforum.common.Result;
-import com.minecraftforum.config.custom.annotations.AnonymousAccess;
+import com.minecraftforum.security.HandlerAccessRegistry;
 import com.minecraftforum.util.SecurityUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -24,6 +24,7 @@ import java.io.PrintWriter;
 public class LoginInterceptor implements HandlerInterceptor {
 
     private final SecurityUtil securityUtil;
+    private final HandlerAccessRegistry handlerAccessRegistry;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
@@ -35,9 +36,8 @@ public class LoginInterceptor implements HandlerInterceptor {
 
         HandlerMethod handlerMethod = (HandlerMethod) handler;
         
-        // 检查是否有 @AnonymousAccess 注解（方法级别或类级别）
-        boolean isAnonymousAccess = handlerMethod.hasMethodAnnotation(AnonymousAccess.class)
-                || handlerMethod.getBeanType().isAnnotationPresent(AnonymousAccess.class);
+        // 检查是否有 @AnonymousAccess 注解（方法级别或类级别，启动后预先计算）
+        boolean isAnonymousAccess = handlerAccessRegistry.isAnonymousAccess(handlerMethod);
         
         // 如果允许匿名访问，直接放行
         if (isAnonymousAccess) {
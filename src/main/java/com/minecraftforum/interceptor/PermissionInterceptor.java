@@ -2,7 +2,8 @@ package com.minecraftforum.interceptor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.minecraftforum.common.Result;
-import com.minecraftforum.service.PermissionCacheService;
+import com.minecraftforum.security.HandlerAccessRegistry;
+import com.minecraftforum.security.PermissionRouteMatcher;
 import com.minecraftforum.util.SecurityUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -16,7 +17,7 @@ import java.io.PrintWriter;
 
 /**
  * 权限拦截器
- * 从Redis缓存查询权限并验证用户是否有权限访问
+ * 从内存中的路由匹配器查询接口权限并验证用户是否有权限访问
  */
 @Slf4j
 @Component
@@ -24,7 +25,7 @@ import java.io.PrintWriter;
 public class PermissionInterceptor implements HandlerInterceptor {
 
     private final SecurityUtil securityUtil;
-    private final PermissionCacheService permissionCacheService;
+    private final HandlerAccessRegistry handlerAccessRegistry;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
@@ -39,17 +40,12 @@ public class PermissionInterceptor implements HandlerInterceptor {
         }
         
         // 规范化 URL（移除多余的斜杠）
-        requestURI = normalizeUrl(requestURI);
+        requestURI = PermissionRouteMatcher.normalizeUrl(requestURI);
         
-        // 从Redis缓存查询该接口对应的权限代码（优先）
-        String permissionCode = permissionCacheService.getPermissionCodeByApi(method, requestURI);
+        // 查询该接口对应的权限代码：无路径参数的接口在注册表中已预先计算，其余按路由匹配器匹配（如 /api/forum/posts/{id}）
+        String permissionCode = handlerAccessRegistry.getPermissionCode(handler, method, requestURI);
         
-        // 如果精确匹配失败，尝试模糊匹配（支持路径参数，如 /api/forum/posts/{id}）
-        if (permissionCode == null) {
-            permissionCode = permissionCacheService.getPermissionCodeByApiFuzzy(method, requestURI);
-        }
-        
-        // 如果缓存和数据库都没有配置该接口的权限，则允许访问（向后兼容）
+        // 如果没有配置该接口的权限，则允许访问（向后兼容）
         if (!StringUtils.hasText(permissionCode)) {
             return true;
         }
@@ -73,25 +69,4 @@ public class PermissionInterceptor implements HandlerInterceptor {
         
         return true;
     }
-
-    /**
-     * 规范化 URL
-     */
-    private String normalizeUrl(String url) {
-        if (url == null || url.isEmpty()) {
-            return "/";
-        }
-        // 移除多余的斜杠
-        url = url.replaceAll("/+", "/");
-        // 确保以/开头
-        if (!url.startsWith("/")) {
-            url = "/" + url;
-        }
-        // 移除末尾的斜杠（除非是根路径）
-        if (url.length() > 1 && url.endsWith("/")) {
-            url = url.substring(0, url.length() - 1);
-        }
-        return url;
-    }
 }
-
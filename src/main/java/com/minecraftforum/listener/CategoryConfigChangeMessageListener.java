@@ -0,0 +1,23 @@
+package com.minecraftforum.listener;
+
+import com.minecraftforum.service.CategoryConfigCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分类配置变更消息监听器
+ * 订阅 Redis 分类配置变更频道，收到通知后清除本地分类配置缓存
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryConfigChangeMessageListener implements MessageListener {
+    
+    private final CategoryConfigCacheService categoryConfigCacheService;
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        categoryConfigCacheService.evictLocalCache();
+    }
+}
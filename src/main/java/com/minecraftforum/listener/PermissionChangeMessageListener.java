@@ -0,0 +1,32 @@
+package com.minecraftforum.listener;
+
+import com.minecraftforum.service.PermissionCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 权限配置变更消息监听器
+ * 订阅 Redis 权限变更频道，收到其他节点发布的新版本号后重建本地权限路由匹配器
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PermissionChangeMessageListener implements MessageListener {
+    
+    private final PermissionCacheService permissionCacheService;
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            permissionCacheService.onPermissionChangeMessage(Long.parseLong(body.trim()));
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法识别的权限变更消息: {}", body);
+        }
+    }
+}
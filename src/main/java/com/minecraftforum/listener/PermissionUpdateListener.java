@@ -1,10 +1,7 @@
 package com.minecraftforum.listener;
 
-import com.minecraftforum.entity.Permission;
-import com.minecraftforum.entity.UserRole;
 import com.minecraftforum.event.UserPermissionUpdateEvent;
-import com.minecraftforum.mapper.UserRoleMapper;
-import com.minecraftforum.service.PermissionService;
+import com.minecraftforum.service.RolePermissionCacheService;
 import com.minecraftforum.util.TokenUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,20 +10,21 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 权限更新事件监听器
- * 异步处理用户权限更新，同步更新Redis中的Token权限
+ * 异步处理用户角色变更，同步更新Redis中Token保存的角色
+ *
+ * 角色权限变更不需要处理：Token 只保存角色ID，权限按角色实时解析，
+ * 变更后权限配置版本号递增，各节点的角色权限缓存随之失效
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class PermissionUpdateListener {
     
-    private final PermissionService permissionService;
+    private final RolePermissionCacheService rolePermissionCacheService;
     private final TokenUtil tokenUtil;
-    private final UserRoleMapper userRoleMapper;
     
     /**
      * 监听用户权限更新事件
@@ -37,12 +35,11 @@ public class PermissionUpdateListener {
     public void handleUserPermissionUpdate(UserPermissionUpdateEvent event) {
         try {
             if (event.isUpdateRoleUsers()) {
-                // 更新所有拥有该角色的用户的Token权限
-                handleRolePermissionUpdate(event.getRoleId());
-            } else {
-                // 更新指定用户的Token权限
-                handleUserPermissionUpdate(event.getUserId());
+                log.debug("角色权限变更已通过权限配置版本号生效，无需更新Token: roleId={}", event.getRoleId());
+                return;
             }
+            // 更新指定用户的Token角色
+            handleUserPermissionUpdate(event.getUserId());
         } catch (Exception e) {
             log.error("处理权限更新事件失败: userId={}, roleId={}, error={}", 
                     event.getUserId(), event.getRoleId(), e.getMessage(), e);
@@ -50,66 +47,23 @@ public class PermissionUpdateListener {
     }
     
     /**
-     * 处理单个用户的权限更新
+     * 处理单个用户的角色更新
      */
     private void handleUserPermissionUpdate(Long userId) {
         try {
-            log.debug("开始同步用户Token权限: userId={}", userId);
-            
-            // 获取用户的最新权限
-            List<Permission> permissions = permissionService.getUserPermissions(userId);
-            List<String> permissionCodes = permissions.stream()
-                    .map(Permission::getCode)
-                    .collect(Collectors.toList());
-            
-            // 更新用户所有Token的权限
-            tokenUtil.updateUserAllTokensPermissions(userId, permissionCodes);
-            
-            log.info("用户Token权限同步完成: userId={}, permissionCount={}", userId, permissionCodes.size());
-        } catch (Exception e) {
-            log.error("同步用户Token权限失败: userId={}, error={}", userId, e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * 处理角色权限更新（更新所有拥有该角色的用户）
-     */
-    private void handleRolePermissionUpdate(Long roleId) {
-        try {
-            log.debug("开始同步角色用户Token权限: roleId={}", roleId);
-            
-            // 查询所有拥有该角色的用户
-            com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<UserRole> wrapper =
-                new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<>();
-            wrapper.eq(UserRole::getRoleId, roleId);
-            List<UserRole> userRoles = userRoleMapper.selectList(wrapper);
+            log.debug("开始同步用户Token角色: userId={}", userId);
             
-            if (userRoles == null || userRoles.isEmpty()) {
-                log.debug("角色没有关联用户: roleId={}", roleId);
-                return;
-            }
+            // 获取用户的最新角色
+            List<Long> roleIds = rolePermissionCacheService.getUserRoleIds(userId);
             
-            // 为每个用户同步更新Token权限
-            int successCount = 0;
-            int failCount = 0;
-            for (UserRole userRole : userRoles) {
-                try {
-                    handleUserPermissionUpdate(userRole.getUserId());
-                    successCount++;
-                } catch (Exception e) {
-                    failCount++;
-                    log.warn("同步用户Token权限失败: userId={}, roleId={}, error={}", 
-                            userRole.getUserId(), roleId, e.getMessage());
-                }
-            }
+            // 更新用户所有Token的角色
+            tokenUtil.updateUserAllTokensRoles(userId, roleIds);
             
-            log.info("角色用户Token权限同步完成: roleId={}, totalUsers={}, success={}, fail={}", 
-                    roleId, userRoles.size(), successCount, failCount);
+            log.info("用户Token角色同步完成: userId={}, roleIds={}", userId, roleIds);
         } catch (Exception e) {
-            log.error("同步角色用户Token权限失败: roleId={}, error={}", roleId, e.getMessage(), e);
+            log.error("同步用户Token角色失败: userId={}, error={}", userId, e.getMessage(), e);
         }
     }
 }
 
 
-
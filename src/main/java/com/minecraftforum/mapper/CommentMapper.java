@@ -3,20 +3,15 @@ package com.minecraftforum.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.minecraftforum.entity.Comment;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 
 @Mapper
 public interface CommentMapper extends BaseMapper<Comment> {
+    
+    /**
+     * 原子增减点赞数，结果不小于 0
+     */
+    @Update("UPDATE comment SET like_count = GREATEST(IFNULL(like_count, 0) + #{delta}, 0) WHERE id = #{id}")
+    int incrementLikeCount(@Param("id") Long id, @Param("delta") int delta);
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
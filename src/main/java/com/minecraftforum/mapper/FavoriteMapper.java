@@ -2,21 +2,17 @@ package com.minecraftforum.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.minecraftforum.entity.Favorite;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 
 @Mapper
 public interface FavoriteMapper extends BaseMapper<Favorite> {
+    
+    /**
+     * 幂等插入收藏记录，依赖 uk_user_resource 唯一索引
+     * @return 1-新增收藏，0-已收藏过
+     */
+    @Insert("INSERT IGNORE INTO favorite (user_id, resource_id, create_time) " +
+            "VALUES (#{userId}, #{resourceId}, #{createTime})")
+    int insertIgnore(Favorite favorite);
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
@@ -3,16 +3,46 @@ package com.minecraftforum.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.minecraftforum.entity.ForumPost;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface ForumPostMapper extends BaseMapper<ForumPost> {
+    
+    /**
+     * 批量累加浏览量（帖子ID -> 增量），只更新 view_count 列
+     * update_time 显式赋值为原值，避免 ON UPDATE CURRENT_TIMESTAMP 把浏览当作修改
+     */
+    @Update("<script>" +
+            "UPDATE forum_post SET view_count = view_count + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "END, update_time = update_time WHERE id IN " +
+            "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int batchIncrementViewCount(@Param("deltas") Map<Long, Long> deltas);
+    
+    /**
+     * 原子增减点赞数，结果不小于 0
+     */
+    @Update("UPDATE forum_post SET like_count = GREATEST(IFNULL(like_count, 0) + #{delta}, 0), " +
+            "update_time = update_time WHERE id = #{id}")
+    int incrementLikeCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    /**
+     * 原子增减评论数，结果不小于 0
+     */
+    @Update("UPDATE forum_post SET comment_count = GREATEST(IFNULL(comment_count, 0) + #{delta}, 0), " +
+            "update_time = update_time WHERE id = #{id}")
+    int incrementCommentCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    /**
+     * 按分类统计指定状态的数量
+     * 返回的每一行包含 category、total 两列
+     */
+    @Select("SELECT category, COUNT(*) AS total FROM forum_post WHERE status = #{status} GROUP BY category")
+    List<Map<String, Object>> countByCategory(@Param("status") String status);
 }
-
-
-
-
-
-
-
-
-
@@ -3,16 +3,32 @@ package com.minecraftforum.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.minecraftforum.entity.ForumReply;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface ForumReplyMapper extends BaseMapper<ForumReply> {
+    
+    /**
+     * 按评论分组统计直接回复数量（parent_id 为空）
+     * 返回的每一行包含 commentId、replyCount 两列
+     */
+    @Select("<script>" +
+            "SELECT comment_id AS commentId, COUNT(*) AS replyCount FROM forum_reply " +
+            "WHERE parent_id IS NULL AND comment_id IN " +
+            "<foreach collection='commentIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY comment_id" +
+            "</script>")
+    List<Map<String, Object>> countRepliesByCommentIds(@Param("commentIds") Collection<Long> commentIds);
+    
+    /**
+     * 原子增减点赞数，结果不小于 0
+     */
+    @Update("UPDATE forum_reply SET like_count = GREATEST(IFNULL(like_count, 0) + #{delta}, 0) WHERE id = #{id}")
+    int incrementLikeCount(@Param("id") Long id, @Param("delta") int delta);
 }
-
-
-
-
-
-
-
-
-
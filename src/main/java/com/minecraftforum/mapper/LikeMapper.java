@@ -2,21 +2,17 @@ package com.minecraftforum.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.minecraftforum.entity.Like;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 
 @Mapper
 public interface LikeMapper extends BaseMapper<Like> {
+    
+    /**
+     * 幂等插入点赞记录，依赖 (user_id, 目标ID) 唯一索引
+     * @return 1-新增点赞，0-已点赞过
+     */
+    @Insert("INSERT IGNORE INTO `like` (user_id, resource_id, post_id, comment_id, reply_id, create_time) " +
+            "VALUES (#{userId}, #{resourceId}, #{postId}, #{commentId}, #{replyId}, #{createTime})")
+    int insertIgnore(Like like);
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
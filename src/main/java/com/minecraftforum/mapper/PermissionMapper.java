@@ -3,8 +3,34 @@ package com.minecraftforum.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.minecraftforum.entity.Permission;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface PermissionMapper extends BaseMapper<Permission> {
+    
+    /**
+     * 查询一组角色拥有的启用权限代码（去重，按排序顺序）
+     */
+    @Select("<script>" +
+            "SELECT p.code FROM permission p " +
+            "WHERE p.status = 1 AND p.code IN (" +
+            "SELECT rp.permission_code FROM role_permission rp WHERE rp.role_id IN " +
+            "<foreach collection='roleIds' item='roleId' open='(' separator=',' close=')'>#{roleId}</foreach>" +
+            ") ORDER BY p.sort_order" +
+            "</script>")
+    List<String> selectCodesByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+    
+    /**
+     * 一次查询用户通过角色获得的启用权限（去重，按排序顺序）
+     */
+    @Select("SELECT DISTINCT p.* FROM permission p " +
+            "INNER JOIN role_permission rp ON rp.permission_code = p.code " +
+            "INNER JOIN user_role ur ON ur.role_id = rp.role_id " +
+            "WHERE ur.user_id = #{userId} AND p.status = 1 " +
+            "ORDER BY p.sort_order")
+    List<Permission> selectUserPermissions(@Param("userId") Long userId);
 }
-
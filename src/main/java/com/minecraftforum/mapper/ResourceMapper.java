@@ -3,21 +3,44 @@ package com.minecraftforum.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.minecraftforum.entity.Resource;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 计数器更新只修改对应列，update_time 保持原值，避免互动操作被当作资源修改
+ */
 @Mapper
 public interface ResourceMapper extends BaseMapper<Resource> {
+    
+    /**
+     * 原子增减点赞数，结果不小于 0
+     */
+    @Update("UPDATE resource SET like_count = GREATEST(IFNULL(like_count, 0) + #{delta}, 0), " +
+            "update_time = update_time WHERE id = #{id}")
+    int incrementLikeCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    /**
+     * 原子增减收藏数，结果不小于 0
+     */
+    @Update("UPDATE resource SET favorite_count = GREATEST(IFNULL(favorite_count, 0) + #{delta}, 0), " +
+            "update_time = update_time WHERE id = #{id}")
+    int incrementFavoriteCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    /**
+     * 原子增加下载次数
+     */
+    @Update("UPDATE resource SET download_count = IFNULL(download_count, 0) + #{delta}, " +
+            "update_time = update_time WHERE id = #{id}")
+    int incrementDownloadCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    /**
+     * 按分类统计指定状态的数量
+     * 返回的每一行包含 category、total 两列
+     */
+    @Select("SELECT category, COUNT(*) AS total FROM resource WHERE status = #{status} GROUP BY category")
+    List<Map<String, Object>> countByCategory(@Param("status") String status);
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
-
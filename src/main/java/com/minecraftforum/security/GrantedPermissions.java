@@ -0,0 +1,64 @@
+package com.minecraftforum.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 一组角色解析出的权限（不可变）
+ * 同一角色组合在同一权限配置版本下只构建一次，所有请求共享；
+ * 权限判断为哈希集合查找，不产生额外对象
+ */
+public final class GrantedPermissions {
+
+    private static final GrantedPermissions EMPTY = new GrantedPermissions(List.of());
+
+    private final List<String> codes;
+    private final Set<String> codeSet;
+    private final List<GrantedAuthority> authorities;
+
+    private GrantedPermissions(Collection<String> codes) {
+        this.codes = codes.stream().filter(Objects::nonNull).distinct().toList();
+        this.codeSet = Set.copyOf(this.codes);
+        this.authorities = this.codes.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    public static GrantedPermissions of(Collection<String> codes) {
+        return codes == null || codes.isEmpty() ? EMPTY : new GrantedPermissions(codes);
+    }
+
+    public static GrantedPermissions empty() {
+        return EMPTY;
+    }
+
+    public boolean contains(String code) {
+        return code != null && codeSet.contains(code);
+    }
+
+    /**
+     * 权限代码（按权限排序顺序）
+     */
+    public List<String> getCodes() {
+        return codes;
+    }
+
+    /**
+     * 权限代码集合
+     */
+    public Set<String> getCodeSet() {
+        return codeSet;
+    }
+
+    /**
+     * 对应的 GrantedAuthority 列表，用于构建 Authentication
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
@@ -0,0 +1,140 @@
+package com.minecraftforum.security;
+
+import com.minecraftforum.config.custom.annotations.AnonymousAccess;
+import com.minecraftforum.service.PermissionCacheService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Controller 方法访问规则注册表
+ * 根据 RequestMappingHandlerMapping 中的全部映射，为每个 Controller 方法预先计算：
+ * 1. 是否允许匿名访问（方法或类上的 @AnonymousAccess）
+ * 2. 需要的权限代码（仅限单一请求方式、无路径参数的映射，其余映射在请求时按 URL 匹配）
+ *
+ * 请求时按 Method 对象做一次 IdentityHashMap 查找；权限路由匹配器替换后注册表在下次访问时重建
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HandlerAccessRegistry {
+
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final PermissionCacheService permissionCacheService;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 单个 Controller 方法的访问规则
+     */
+    @Getter
+    public static final class HandlerAccess {
+        private final boolean anonymous;
+        private final String requestMethod; // 预先计算权限时使用的请求方式，null 表示未预先计算
+        private final String permissionCode;
+
+        private HandlerAccess(boolean anonymous, String requestMethod, String permissionCode) {
+            this.anonymous = anonymous;
+            this.requestMethod = requestMethod;
+            this.permissionCode = permissionCode;
+        }
+    }
+
+    /**
+     * 判断处理器是否允许匿名访问
+     */
+    public boolean isAnonymousAccess(HandlerMethod handlerMethod) {
+        HandlerAccess access = getSnapshot().accesses.get(handlerMethod.getMethod());
+        if (access != null) {
+            return access.anonymous;
+        }
+        return isAnonymousAnnotated(handlerMethod);
+    }
+
+    /**
+     * 查询请求需要的权限代码
+     * @param handler 处理器
+     * @param method 请求方式
+     * @param url 请求路径
+     * @return 权限代码，未配置返回 null
+     */
+    public String getPermissionCode(Object handler, String method, String url) {
+        Snapshot current = getSnapshot();
+        if (handler instanceof HandlerMethod handlerMethod) {
+            HandlerAccess access = current.accesses.get(handlerMethod.getMethod());
+            if (access != null && access.requestMethod != null && access.requestMethod.equals(method)) {
+                return access.permissionCode;
+            }
+        }
+        return current.matcher.match(method, PermissionRouteMatcher.normalizeUrl(url));
+    }
+
+    private Snapshot getSnapshot() {
+        PermissionRouteMatcher matcher = permissionCacheService.getRouteMatcher();
+        Snapshot current = snapshot;
+        if (current != null && current.matcher == matcher) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.matcher != matcher) {
+                current = build(matcher);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot build(PermissionRouteMatcher matcher) {
+        Map<Method, HandlerAccess> accesses = new IdentityHashMap<>();
+        int resolved = 0;
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            RequestMappingInfo info = entry.getKey();
+            HandlerMethod handlerMethod = entry.getValue();
+
+            String requestMethod = null;
+            String permissionCode = null;
+            Set<String> directPaths = info.getDirectPaths();
+            Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+            if (directPaths.size() == 1 && info.getPatternValues().size() == 1 && methods.size() == 1) {
+                requestMethod = methods.iterator().next().name();
+                permissionCode = matcher.match(requestMethod, PermissionRouteMatcher.normalizeUrl(directPaths.iterator().next()));
+                resolved++;
+            }
+
+            HandlerAccess access = new HandlerAccess(isAnonymousAnnotated(handlerMethod), requestMethod, permissionCode);
+            // 同一方法映射到多个路由时无法预先确定权限，只保留匿名标记
+            HandlerAccess previous = accesses.putIfAbsent(handlerMethod.getMethod(), access);
+            if (previous != null) {
+                accesses.put(handlerMethod.getMethod(), new HandlerAccess(previous.anonymous, null, null));
+            }
+        }
+        log.info("接口访问规则注册表构建完成，共 {} 个接口，{} 个已预先计算权限", accesses.size(), resolved);
+        return new Snapshot(matcher, accesses);
+    }
+
+    private static boolean isAnonymousAnnotated(HandlerMethod handlerMethod) {
+        return handlerMethod.hasMethodAnnotation(AnonymousAccess.class)
+                || handlerMethod.getBeanType().isAnnotationPresent(AnonymousAccess.class);
+    }
+
+    private static final class Snapshot {
+        private final PermissionRouteMatcher matcher;
+        private final Map<Method, HandlerAccess> accesses;
+
+        private Snapshot(PermissionRouteMatcher matcher, Map<Method, HandlerAccess> accesses) {
+            this.matcher = matcher;
+            this.accesses = accesses;
+        }
+    }
+}
@@ -1,25 +1,19 @@
 package com.minecraftforum.security;
 
-import com.minecraftforum.config.custom.annotations.AnonymousAccess;
+import com.minecraftforum.service.RolePermissionCacheService;
 import com.minecraftforum.util.TokenUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.servlet.HandlerExecutionChain;
-import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 @Component
@@ -27,48 +21,29 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final TokenUtil tokenUtil;
-
-    @Autowired
-    private RequestMappingHandlerMapping handlerMapping;
+    private final RolePermissionCacheService rolePermissionCacheService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        // 检查接口是否有 @AnonymousAccess 注解
-        boolean isAnonymousAccess = false;
-        HandlerExecutionChain handler;
-        try {
-            handler = handlerMapping.getHandler(request);
-            if (handler != null && handler.getHandler() instanceof HandlerMethod handlerMethod) {
-                // 检查接口或类上是否有 @AnonymousAccess 注解
-                isAnonymousAccess = handlerMethod.hasMethodAnnotation(AnonymousAccess.class)
-                        || handlerMethod.getBeanType().isAnnotationPresent(AnonymousAccess.class);
-            }
-        } catch (Exception ignore) {
-        }
-
         // 无论接口是否允许匿名访问，都尝试解析Token并设置认证信息
         // 这样即使接口允许匿名访问，如果用户提供了有效的token，也能正确获取用户权限信息
         String token = getTokenFromRequest(request);
 
-        if (StringUtils.hasText(token) && tokenUtil.isTokenValid(token)) {
-            // 有token，尝试解析并设置认证信息
+        if (StringUtils.hasText(token)) {
+            // 有token，尝试解析并设置认证信息（一次读取会话，不再逐字段访问 Redis）
             try {
-                String username = tokenUtil.getUsernameFromToken(token);
-                Long userId = tokenUtil.getUserIdFromToken(token);
+                TokenSession session = tokenUtil.getSession(token);
+                String username = session != null ? session.getUsername() : null;
+                Long userId = session != null ? session.getUserId() : null;
 
                 if (username != null && userId != null) {
-                    // 构建权限列表
-                    List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                    
-                    // 从 Redis 中提取权限列表
-                    List<String> permissions = tokenUtil.getPermissionsFromToken(token);
-                    for (String permissionCode : permissions) {
-                        // 将权限代码添加为GrantedAuthority
-                        authorities.add(new SimpleGrantedAuthority(permissionCode));
-                    }
+                    // 权限集合及对应的 GrantedAuthority 按角色组合预先构建，请求间共享
+                    GrantedPermissions permissions = resolvePermissions(token, session);
 
+                    // principal 携带用户ID和权限集合，后续获取当前用户、判断权限时无需再查询
+                    LoginUser loginUser = new LoginUser(userId, username, permissions);
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        username, null, authorities);
+                        loginUser, null, permissions.getAuthorities());
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             } catch (Exception e) {
@@ -80,6 +55,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 按 Token 中的角色解析权限
+     * 旧格式 Token（直接保存权限列表）在首次使用时补充角色ID，之后同样按角色解析
+     */
+    private GrantedPermissions resolvePermissions(String token, TokenSession session) {
+        List<Long> roleIds = session.getRoleIds();
+        if (session.isLegacy()) {
+            roleIds = rolePermissionCacheService.getUserRoleIds(session.getUserId());
+            tokenUtil.updateTokenRoles(token, roleIds);
+        }
+        return rolePermissionCacheService.getGrantedPermissions(roleIds);
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,52 @@
+package com.minecraftforum.security;
+
+import lombok.Getter;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.util.Set;
+
+/**
+ * 当前登录用户
+ * 由 JwtAuthenticationFilter 根据 Token 构建，作为 Authentication 的 principal 保存在 SecurityContext 中，
+ * 业务代码通过 SecurityUtil 直接读取用户ID和权限，无需再按用户名查询数据库
+ */
+@Getter
+public class LoginUser implements AuthenticatedPrincipal {
+
+    private final Long userId;
+    private final String username;
+    private final GrantedPermissions grantedPermissions;
+
+    public LoginUser(Long userId, String username, GrantedPermissions grantedPermissions) {
+        this.userId = userId;
+        this.username = username;
+        this.grantedPermissions = grantedPermissions != null ? grantedPermissions : GrantedPermissions.empty();
+    }
+
+    /**
+     * 权限代码集合（不可变）
+     */
+    public Set<String> getPermissions() {
+        return grantedPermissions.getCodeSet();
+    }
+
+    /**
+     * 是否拥有指定权限（哈希查找）
+     */
+    public boolean hasPermission(String permissionCode) {
+        return grantedPermissions.contains(permissionCode);
+    }
+
+    /**
+     * Authentication.getName() 会返回此值，保持与原来用户名作为 principal 时一致
+     */
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
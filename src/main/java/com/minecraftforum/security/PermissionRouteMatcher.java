@@ -0,0 +1,198 @@
+package com.minecraftforum.security;
+
+import com.minecraftforum.entity.Permission;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 接口路由 -> 权限代码 匹配器
+ * 启动时根据权限表一次性构建，构建后不可变；权限变更时整体重建并替换，匹配过程不访问 Redis 和数据库
+ *
+ * 匹配顺序：
+ * 1. 按 请求方式 + URL 精确匹配（HashMap 查找）
+ * 2. 按请求方式取出预编译的 PathPattern（如 /api/admin/users/{id}/roles），按具体程度从高到低依次匹配
+ */
+@Slf4j
+public final class PermissionRouteMatcher {
+
+    private static final PathPatternParser PATTERN_PARSER = new PathPatternParser();
+
+    private static final PermissionRouteMatcher EMPTY =
+            new PermissionRouteMatcher(Collections.emptyMap(), Collections.emptyMap(), 0, 0L);
+
+    /**
+     * 精确路由：method -> (url -> permission code)
+     */
+    private final Map<String, Map<String, String>> exactRoutes;
+
+    /**
+     * 带路径参数的路由：method -> 已按具体程度排序的模式列表
+     */
+    private final Map<String, List<PatternRoute>> patternRoutes;
+
+    private final int routeCount;
+
+    /**
+     * 权限配置版本号
+     */
+    @Getter
+    private final long version;
+
+    private PermissionRouteMatcher(Map<String, Map<String, String>> exactRoutes,
+                                   Map<String, List<PatternRoute>> patternRoutes,
+                                   int routeCount, long version) {
+        this.exactRoutes = exactRoutes;
+        this.patternRoutes = patternRoutes;
+        this.routeCount = routeCount;
+        this.version = version;
+    }
+
+    /**
+     * 空匹配器（所有接口都没有配置权限）
+     */
+    public static PermissionRouteMatcher empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 根据权限列表构建匹配器，只收录启用且配置了 apiurl、methodtype 的权限
+     * @param version 权限配置版本号
+     */
+    public static PermissionRouteMatcher build(Collection<Permission> permissions, long version) {
+        Map<String, Map<String, String>> exact = new HashMap<>();
+        Map<String, List<PatternRoute>> patterns = new HashMap<>();
+        int count = 0;
+
+        for (Permission permission : permissions) {
+            if (permission.getStatus() == null || permission.getStatus() != 1
+                    || permission.getCode() == null
+                    || permission.getMethodtype() == null || permission.getMethodtype().isBlank()
+                    || permission.getApiurl() == null || permission.getApiurl().isBlank()) {
+                continue;
+            }
+            String method = permission.getMethodtype().trim().toUpperCase(Locale.ROOT);
+            String apiUrl = normalizeUrl(permission.getApiurl().trim());
+
+            if (apiUrl.indexOf('{') < 0 && apiUrl.indexOf('*') < 0) {
+                // 同一路由配置了多个权限时保留先出现的一个，与原先的查询行为一致
+                exact.computeIfAbsent(method, k -> new HashMap<>()).putIfAbsent(apiUrl, permission.getCode());
+                count++;
+                continue;
+            }
+
+            try {
+                PathPattern pattern = PATTERN_PARSER.parse(apiUrl);
+                patterns.computeIfAbsent(method, k -> new ArrayList<>()).add(new PatternRoute(pattern, permission.getCode()));
+                count++;
+            } catch (PatternParseException e) {
+                log.warn("权限接口地址格式错误，已忽略: code={}, apiurl={}, error={}",
+                        permission.getCode(), permission.getApiurl(), e.getMessage());
+            }
+        }
+
+        Map<String, Map<String, String>> exactRoutes = new HashMap<>();
+        exact.forEach((method, routes) -> exactRoutes.put(method, Map.copyOf(routes)));
+
+        Map<String, List<PatternRoute>> patternRoutes = new HashMap<>();
+        patterns.forEach((method, routes) -> {
+            // 具体程度高的模式优先，例如 /api/files/{id}/download 优先于 /api/files/**
+            routes.sort((a, b) -> PathPattern.SPECIFICITY_COMPARATOR.compare(a.pattern, b.pattern));
+            patternRoutes.put(method, List.copyOf(routes));
+        });
+
+        return new PermissionRouteMatcher(Map.copyOf(exactRoutes), Map.copyOf(patternRoutes), count, version);
+    }
+
+    /**
+     * 查询接口对应的权限代码
+     * @param method 请求方式（大写）
+     * @param url 已规范化的请求路径
+     * @return 权限代码，未配置返回 null
+     */
+    public String match(String method, String url) {
+        if (method == null || url == null) {
+            return null;
+        }
+
+        Map<String, String> exact = exactRoutes.get(method);
+        if (exact != null) {
+            String code = exact.get(url);
+            if (code != null) {
+                return code;
+            }
+        }
+
+        List<PatternRoute> routes = patternRoutes.get(method);
+        if (routes == null) {
+            return null;
+        }
+
+        PathContainer path = PathContainer.parsePath(url);
+        for (PatternRoute route : routes) {
+            if (route.pattern.matches(path)) {
+                return route.code;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 已收录的路由数量
+     */
+    public int size() {
+        return routeCount;
+    }
+
+    /**
+     * 规范化 URL：合并多余的斜杠、确保以 / 开头、移除末尾的斜杠（根路径除外）
+     * 已是规范形式时直接返回原字符串，不产生额外对象
+     */
+    public static String normalizeUrl(String url) {
+        if (url == null || url.isEmpty()) {
+            return "/";
+        }
+        int length = url.length();
+        boolean normalized = url.charAt(0) == '/'
+                && (length == 1 || url.charAt(length - 1) != '/')
+                && !url.contains("//");
+        if (normalized) {
+            return url;
+        }
+
+        StringBuilder builder = new StringBuilder(length + 1);
+        builder.append('/');
+        for (int i = 0; i < length; i++) {
+            char c = url.charAt(i);
+            if (c == '/' && builder.charAt(builder.length() - 1) == '/') {
+                continue;
+            }
+            builder.append(c);
+        }
+        if (builder.length() > 1 && builder.charAt(builder.length() - 1) == '/') {
+            builder.setLength(builder.length() - 1);
+        }
+        return builder.toString();
+    }
+
+    private static final class PatternRoute {
+        private final PathPattern pattern;
+        private final String code;
+
+        private PatternRoute(PathPattern pattern, String code) {
+            this.pattern = pattern;
+            this.code = code;
+        }
+    }
+}
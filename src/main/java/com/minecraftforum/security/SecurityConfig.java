@@ -2,6 +2,7 @@ package com.minecraftforum.security;
 
 import com.minecraftforum.config.AnonymousUrlCollector;
 import com.minecraftforum.config.CorsConfig;
+import com.minecraftforum.config.FileStorageConfig;
 import com.minecraftforum.config.ForumConfig;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -31,6 +32,7 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final ForumConfig forumConfig;
     private final CorsConfig corsConfig;
+    private final FileStorageConfig fileStorageConfig;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -69,6 +71,11 @@ public class SecurityConfig {
                             // 配置接口允许匿名访问（前端需要获取配置信息）
                             .requestMatchers("/api/config/**").permitAll();
                     
+                    if (fileStorageConfig.isLocal()) {
+                        // 本地存储的文件访问地址（与OSS公共读地址一致，允许匿名访问，由 LocalFileAccessController 处理）
+                        auth.requestMatchers(fileStorageConfig.getAccessPath() + "/**").permitAll();
+                    }
+                    
                     auth
                             // 后台管理接口：需要page:admin权限或ROLE_ADMIN角色（兼容旧系统）
                             .requestMatchers("/api/admin/**")
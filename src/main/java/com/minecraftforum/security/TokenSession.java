@@ -0,0 +1,45 @@
+package com.minecraftforum.security;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Token 会话信息（不可变）
+ * 对应 Redis 中 token:{uuid} 保存的数据，由 TokenUtil 一次读取并解析
+ */
+@Getter
+public class TokenSession {
+
+    private final String token;
+    private final Long userId;
+    private final String username;
+    /**
+     * 角色ID列表，旧格式 Token 为 null
+     */
+    private final List<Long> roleIds;
+    /**
+     * 旧格式 Token 中直接保存的权限列表，新格式 Token 为空
+     */
+    private final List<String> permissions;
+    private final Long createTime;
+
+    public TokenSession(String token, Long userId, String username, List<Long> roleIds,
+                        List<String> permissions, Long createTime) {
+        this.token = token;
+        this.userId = userId;
+        this.username = username;
+        this.roleIds = roleIds == null ? null : List.copyOf(roleIds);
+        this.permissions = permissions == null ? List.of()
+                : permissions.stream().filter(Objects::nonNull).toList();
+        this.createTime = createTime;
+    }
+
+    /**
+     * 是否为只保存权限列表的旧格式 Token
+     */
+    public boolean isLegacy() {
+        return roleIds == null;
+    }
+}
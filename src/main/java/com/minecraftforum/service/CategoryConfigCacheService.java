@@ -0,0 +1,154 @@
+package com.minecraftforum.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.minecraftforum.entity.CategoryConfig;
+import com.minecraftforum.event.CategoryConfigChangedEvent;
+import com.minecraftforum.mapper.CategoryConfigMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分类配置缓存服务
+ * 在内存中缓存全部启用的分类配置（首次读取时一次从数据库加载），按类型分组并为每个类型计算 ETag；
+ * 缓存只包含数据库中存在的类型，查询其他类型时返回空列表，不会随请求参数增长；
+ * 分类配置变更时清除本地缓存并通过 Redis 频道通知其他节点
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryConfigCacheService {
+
+    public static final String CHANNEL_CATEGORY_CHANGED = "category:changed"; // 分类配置变更通知频道
+
+    private final CategoryConfigMapper categoryConfigMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 已加载的启用分类配置，未加载或已失效时为 null
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 缓存代数，每次失效递增；加载期间发生失效时，加载结果不再使用
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 已加载的分类配置及其 ETag
+     */
+    private static final class CachedConfigs {
+        private final List<CategoryConfig> configs;
+        private final String eTag;
+
+        private CachedConfigs(List<CategoryConfig> configs, String eTag) {
+            this.configs = configs;
+            this.eTag = eTag;
+        }
+    }
+
+    /**
+     * 一次加载的全部启用分类配置
+     */
+    private static final class Snapshot {
+        private final long generation;
+        private final Map<String, CachedConfigs> byType;
+        private final CachedConfigs empty;
+
+        private Snapshot(long generation, Map<String, CachedConfigs> byType, CachedConfigs empty) {
+            this.generation = generation;
+            this.byType = byType;
+            this.empty = empty;
+        }
+    }
+
+    /**
+     * 获取指定类型启用的分类配置（按排序顺序，只读）
+     */
+    public List<CategoryConfig> getEnabledConfigs(String type) {
+        return getCached(type).configs;
+    }
+
+    /**
+     * 获取指定类型启用的分类配置的 ETag，内容变化时随之变化
+     */
+    public String getEnabledConfigsETag(String type) {
+        return getCached(type).eTag;
+    }
+
+    /**
+     * 分类配置已变更：清除本地缓存并通知其他节点
+     */
+    public void publishChange() {
+        evictLocalCache();
+        try {
+            redisTemplate.convertAndSend(CHANNEL_CATEGORY_CHANGED, String.valueOf(System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.warn("发布分类配置变更通知失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清除本地缓存
+     */
+    public void evictLocalCache() {
+        generation.incrementAndGet();
+        snapshot = null;
+        eventPublisher.publishEvent(new CategoryConfigChangedEvent(this));
+    }
+
+    private CachedConfigs getCached(String type) {
+        long currentGeneration = generation.get();
+        Snapshot current = snapshot;
+        if (current == null || current.generation != currentGeneration) {
+            current = load(currentGeneration);
+            snapshot = current;
+        }
+        CachedConfigs cached = type != null ? current.byType.get(type) : null;
+        return cached != null ? cached : current.empty;
+    }
+
+    private Snapshot load(long loadGeneration) {
+        LambdaQueryWrapper<CategoryConfig> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(CategoryConfig::getStatus, 1);
+        wrapper.orderByAsc(CategoryConfig::getSortOrder);
+        Map<String, List<CategoryConfig>> grouped = new HashMap<>();
+        for (CategoryConfig config : categoryConfigMapper.selectList(wrapper)) {
+            if (config.getType() != null) {
+                grouped.computeIfAbsent(config.getType(), key -> new ArrayList<>()).add(config);
+            }
+        }
+        Map<String, CachedConfigs> byType = new HashMap<>();
+        grouped.forEach((type, configs) -> byType.put(type,
+                new CachedConfigs(List.copyOf(configs), buildETag(configs))));
+        List<CategoryConfig> none = List.of();
+        return new Snapshot(loadGeneration, Map.copyOf(byType), new CachedConfigs(none, buildETag(none)));
+    }
+
+    /**
+     * 根据分类配置内容计算 ETag
+     */
+    private String buildETag(List<CategoryConfig> configs) {
+        StringBuilder builder = new StringBuilder();
+        for (CategoryConfig config : configs) {
+            builder.append(config.getId()).append('|')
+                    .append(config.getCode()).append('|')
+                    .append(config.getName()).append('|')
+                    .append(config.getSortOrder()).append('|')
+                    .append(config.getIsDefault()).append('|')
+                    .append(config.getUpdateTime()).append('\n');
+        }
+        return DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 
 public interface CategoryConfigService {
     List<CategoryConfig> getEnabledConfigs(String type);
+    String getEnabledConfigsETag(String type);
     List<CategoryConfig> getAllConfigs(String type);
     CategoryConfig getConfigById(Long id);
     CategoryConfig createConfig(CategoryConfig config);
@@ -0,0 +1,256 @@
+package com.minecraftforum.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.minecraftforum.entity.Favorite;
+import com.minecraftforum.entity.Like;
+import com.minecraftforum.mapper.FavoriteMapper;
+import com.minecraftforum.mapper.LikeMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户互动状态缓存服务
+ * 按 用户 + 互动类型 在 Redis 中保存点赞/收藏过的目标ID集合，用于列表页批量判断 isLiked / isFavorited
+ *
+ * 集合在首次查询时从数据库整体加载，并写入一个加载标记成员；
+ * 查询时标记与目标ID一起通过一次 SMISMEMBER 判断，标记不存在说明集合未加载或已过期
+ *
+ * 点赞/取消时递增集合版本号，加载时通过脚本校验版本号，加载期间发生的变更不会被旧快照覆盖
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EngagementCacheService {
+
+    private static final String REDIS_KEY_PREFIX = "engagement:"; // key格式: engagement:post:like:{userId}
+    private static final String LOADED_MARKER = "0"; // 集合已加载标记（目标ID均大于0，不会冲突）
+    private static final long CACHE_EXPIRE_HOURS = 2; // 缓存过期时间：2小时
+    private static final String VERSION_KEY_PREFIX = "engagement:version:"; // 集合版本号，每次点赞/取消时递增
+
+    /**
+     * 加载集合：版本号与加载前一致且集合不存在时才写入
+     * KEYS[1] 集合，KEYS[2] 版本号；ARGV[1] 加载前的版本号，ARGV[2] 过期秒数，ARGV[3..] 成员（含加载标记）
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[2]) or '' "
+                    + "if current ~= ARGV[1] or redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+                    + "for i = 3, #ARGV, 1000 do "
+                    + "redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV))) "
+                    + "end "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1", Long.class);
+
+    /**
+     * 互动变更：递增版本号，集合已加载时同步增删成员
+     * KEYS[1] 集合，KEYS[2] 版本号；ARGV[1] SADD/SREM，ARGV[2] 目标ID，ARGV[3] 过期秒数，ARGV[4] 加载标记
+     */
+    private static final RedisScript<Long> CHANGE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) "
+                    + "redis.call('EXPIRE', KEYS[2], ARGV[3]) "
+                    + "if redis.call('SISMEMBER', KEYS[1], ARGV[4]) == 1 then redis.call(ARGV[1], KEYS[1], ARGV[2]) end "
+                    + "return 1", Long.class);
+
+    /**
+     * 互动类型
+     */
+    @Getter
+    public enum EngagementType {
+        POST_LIKE("post:like"),
+        COMMENT_LIKE("comment:like"),
+        REPLY_LIKE("reply:like"),
+        RESOURCE_LIKE("resource:like"),
+        RESOURCE_FAVORITE("resource:favorite");
+
+        private final String keySegment;
+
+        EngagementType(String keySegment) {
+            this.keySegment = keySegment;
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final LikeMapper likeMapper;
+    private final FavoriteMapper favoriteMapper;
+
+    /**
+     * 判断用户是否对单个目标有过互动
+     */
+    public boolean isEngaged(Long userId, EngagementType type, Long targetId) {
+        if (targetId == null) {
+            return false;
+        }
+        return filterEngaged(userId, type, List.of(targetId)).contains(targetId);
+    }
+
+    /**
+     * 从给定的目标ID中筛选出用户互动过的ID（一次 Redis 调用完成整页判断）
+     */
+    public Set<Long> filterEngaged(Long userId, EngagementType type, Collection<Long> targetIds) {
+        if (userId == null || targetIds == null || targetIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<Long> ids = targetIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        String key = buildKey(userId, type);
+        try {
+            Object[] members = new Object[ids.size() + 1];
+            members[0] = LOADED_MARKER;
+            for (int i = 0; i < ids.size(); i++) {
+                members[i + 1] = String.valueOf(ids.get(i));
+            }
+            Map<Object, Boolean> result = redisTemplate.opsForSet().isMember(key, members);
+
+            if (result != null && Boolean.TRUE.equals(result.get(LOADED_MARKER))) {
+                Set<Long> engaged = new HashSet<>();
+                for (Long id : ids) {
+                    if (Boolean.TRUE.equals(result.get(String.valueOf(id)))) {
+                        engaged.add(id);
+                    }
+                }
+                return engaged;
+            }
+
+            // 集合尚未加载，从数据库整体加载后再判断；
+            // 加载前记下版本号，写入时版本号已变化（加载期间有点赞/取消）则放弃写入，避免旧快照覆盖变更
+            String version = redisTemplate.opsForValue().get(buildVersionKey(userId, type));
+            Set<Long> all = loadAllFromDatabase(userId, type);
+            List<String> args = new ArrayList<>(all.size() + 3);
+            args.add(version != null ? version : "");
+            args.add(String.valueOf(TimeUnit.HOURS.toSeconds(CACHE_EXPIRE_HOURS)));
+            args.add(LOADED_MARKER);
+            for (Long id : all) {
+                args.add(String.valueOf(id));
+            }
+            redisTemplate.execute(LOAD_SCRIPT, List.of(key, buildVersionKey(userId, type)), args.toArray());
+
+            return ids.stream().filter(all::contains).collect(Collectors.toSet());
+        } catch (Exception e) {
+            log.warn("读取互动状态缓存失败，回退到数据库查询: key={}", key, e);
+            return loadFromDatabase(userId, type, ids);
+        }
+    }
+
+    /**
+     * 新增互动后同步缓存（事务提交后执行）
+     */
+    public void onEngaged(Long userId, EngagementType type, Long targetId) {
+        afterCommit(() -> applyChange(userId, type, "SADD", targetId));
+    }
+
+    /**
+     * 取消互动后同步缓存（事务提交后执行）
+     */
+    public void onDisengaged(Long userId, EngagementType type, Long targetId) {
+        afterCommit(() -> applyChange(userId, type, "SREM", targetId));
+    }
+
+    /**
+     * 递增版本号，并只更新已加载的集合；未加载的集合在下次查询时从数据库完整加载
+     */
+    private void applyChange(Long userId, EngagementType type, String command, Long targetId) {
+        redisTemplate.execute(CHANGE_SCRIPT, List.of(buildKey(userId, type), buildVersionKey(userId, type)),
+                command, String.valueOf(targetId), String.valueOf(TimeUnit.HOURS.toSeconds(CACHE_EXPIRE_HOURS)), LOADED_MARKER);
+    }
+
+    private void afterCommit(Runnable action) {
+        Runnable safeAction = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.warn("同步互动状态缓存失败", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    safeAction.run();
+                }
+            });
+        } else {
+            safeAction.run();
+        }
+    }
+
+    /**
+     * 加载用户某类互动的全部目标ID
+     */
+    private Set<Long> loadAllFromDatabase(Long userId, EngagementType type) {
+        return loadFromDatabase(userId, type, null);
+    }
+
+    /**
+     * 从数据库查询互动过的目标ID，targetIds 为空时查询全部
+     */
+    private Set<Long> loadFromDatabase(Long userId, EngagementType type, Collection<Long> targetIds) {
+        if (type == EngagementType.RESOURCE_FAVORITE) {
+            LambdaQueryWrapper<Favorite> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(Favorite::getResourceId);
+            wrapper.eq(Favorite::getUserId, userId);
+            wrapper.in(targetIds != null, Favorite::getResourceId, targetIds);
+            return favoriteMapper.selectList(wrapper).stream()
+                    .map(Favorite::getResourceId)
+                    .collect(Collectors.toSet());
+        }
+
+        LambdaQueryWrapper<Like> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(Like::getUserId, userId);
+        switch (type) {
+            case POST_LIKE:
+                wrapper.select(Like::getPostId);
+                wrapper.isNotNull(Like::getPostId);
+                wrapper.in(targetIds != null, Like::getPostId, targetIds);
+                return collect(likeMapper.selectList(wrapper), Like::getPostId);
+            case COMMENT_LIKE:
+                wrapper.select(Like::getCommentId);
+                wrapper.isNotNull(Like::getCommentId);
+                wrapper.in(targetIds != null, Like::getCommentId, targetIds);
+                return collect(likeMapper.selectList(wrapper), Like::getCommentId);
+            case REPLY_LIKE:
+                wrapper.select(Like::getReplyId);
+                wrapper.isNotNull(Like::getReplyId);
+                wrapper.in(targetIds != null, Like::getReplyId, targetIds);
+                return collect(likeMapper.selectList(wrapper), Like::getReplyId);
+            case RESOURCE_LIKE:
+            default:
+                wrapper.select(Like::getResourceId);
+                wrapper.isNotNull(Like::getResourceId);
+                wrapper.in(targetIds != null, Like::getResourceId, targetIds);
+                return collect(likeMapper.selectList(wrapper), Like::getResourceId);
+        }
+    }
+
+    private Set<Long> collect(List<Like> likes, Function<Like, Long> getter) {
+        return likes.stream().map(getter).collect(Collectors.toSet());
+    }
+
+    private String buildKey(Long userId, EngagementType type) {
+        return REDIS_KEY_PREFIX + type.getKeySegment() + ":" + userId;
+    }
+
+    private String buildVersionKey(Long userId, EngagementType type) {
+        return VERSION_KEY_PREFIX + type.getKeySegment() + ":" + userId;
+    }
+}
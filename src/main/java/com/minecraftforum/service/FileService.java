@@ -37,11 +37,85 @@ public interface FileService {
     java.util.List<SysFile> getFilesByResourceId(Long resourceId);
     
     /**
-     * 下载文件（从OSS获取文件流）
-     * @param fileId 文件ID
-     * @return 文件输入流和文件名
+     * 读取文件内容
+     * @param sysFile 文件信息
+     * @param start 起始位置（包含）
+     * @param end 结束位置（包含）
+     * @return 文件输入流，由调用者负责关闭
      */
-    java.util.Map<String, Object> downloadFile(Long fileId);
+    java.io.InputStream openFileStream(SysFile sysFile, long start, long end);
+    
+    /**
+     * 获取文件在本地磁盘上的路径，用于零拷贝发送
+     * @param sysFile 文件信息
+     * @return 本地路径，不是本地存储或文件不存在时返回 null
+     */
+    java.nio.file.Path getLocalFilePath(SysFile sysFile);
+    
+    /**
+     * 申请直传上传：生成直传上传地址和上传凭证，文件内容由客户端直接上传到存储
+     * @param request 文件名、大小、类型、所属资源ID
+     * @param userId 用户ID
+     * @return 上传凭证 ticket、上传地址 uploadUrl、请求方式 method、需要携带的请求头 headers、过期时间 expiresAt
+     */
+    java.util.Map<String, Object> createDirectUpload(com.minecraftforum.dto.DirectUploadRequest request, Long userId);
+    
+    /**
+     * 完成直传上传：确认文件已上传后登记文件信息
+     * @param ticket 上传凭证
+     * @param userId 用户ID（必须与申请人一致）
+     * @return 文件信息
+     */
+    SysFile completeDirectUpload(String ticket, Long userId);
+    
+    /**
+     * 生成直连下载地址
+     * @param sysFile 文件信息
+     * @return 下载地址 url、过期时间 expiresAt
+     */
+    java.util.Map<String, Object> createDirectDownload(SysFile sysFile);
+    
+    /**
+     * 初始化分片上传；携带文件MD5且存在同一文件未完成的上传时，返回原上传继续续传
+     * @param request 文件名、大小、类型、所属资源ID、文件MD5
+     * @param userId 用户ID
+     * @return 上传进度，格式同 getChunkUploadStatus
+     */
+    java.util.Map<String, Object> initChunkUpload(com.minecraftforum.dto.ChunkUploadInitRequest request, Long userId);
+    
+    /**
+     * 上传一个分片，不同分片可以并行上传
+     * @param uploadId 上传ID
+     * @param partNumber 分片序号，从 1 开始
+     * @param inputStream 分片内容
+     * @param contentLength 分片大小（字节），必须与预期的分片大小一致
+     * @param userId 用户ID
+     * @return 是否写入了分片，分片已接收过时跳过并返回 false
+     */
+    boolean uploadChunk(String uploadId, int partNumber, java.io.InputStream inputStream, long contentLength, Long userId);
+    
+    /**
+     * 查询分片上传进度
+     * @param uploadId 上传ID
+     * @param userId 用户ID
+     * @return 上传ID uploadId、文件名 fileName、文件大小 fileSize、分片大小 chunkSize、分片总数 totalChunks、已接收的分片序号 uploadedChunks
+     */
+    java.util.Map<String, Object> getChunkUploadStatus(String uploadId, Long userId);
+    
+    /**
+     * 完成分片上传：合并全部分片并登记文件信息
+     * @param uploadId 上传ID
+     * @param userId 用户ID
+     * @return 文件信息
+     */
+    SysFile completeChunkUpload(String uploadId, Long userId);
+    
+    /**
+     * 取消分片上传，删除已上传的分片
+     * @param uploadId 上传ID
+     * @param userId 用户ID
+     */
+    void abortChunkUpload(String uploadId, Long userId);
     
     /**
      * 获取所有文件列表（分页）
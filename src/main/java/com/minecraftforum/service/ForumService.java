@@ -3,6 +3,7 @@ package com.minecraftforum.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.minecraftforum.dto.CommentDTO;
+import com.minecraftforum.dto.CursorPage;
 import com.minecraftforum.dto.ForumPostDTO;
 import com.minecraftforum.dto.ReplyDTO;
 import com.minecraftforum.entity.Comment;
@@ -13,6 +14,7 @@ import java.util.List;
 
 public interface ForumService {
     IPage<ForumPostDTO> getPostList(Page<ForumPost> page, String category, String keyword, String authorKeyword, String sortBy);
+    CursorPage<ForumPostDTO> getPostFeed(String cursor, Integer pageSize, String category, String keyword, String authorKeyword, String sortBy); // 游标分页，不统计总数
     ForumPostDTO getPostById(Long id);
     ForumPost createPost(ForumPost post);
     ForumPost updatePost(ForumPost post);
@@ -31,6 +33,7 @@ public interface ForumService {
     IPage<CommentDTO> getCommentsByPostId(Long postId, Integer page, Integer pageSize);
     List<CommentDTO> getUserComments(Long userId);
     List<ReplyDTO> getRepliesByCommentId(Long commentId); // 获取某个评论的所有子评论
+    List<ReplyDTO> getRepliesByCommentId(Long commentId, Long cursor, Integer limit); // 游标分页获取子评论，cursor 为上一页最后一条回复ID
 }
 
 
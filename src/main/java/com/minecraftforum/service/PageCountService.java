@@ -0,0 +1,300 @@
+package com.minecraftforum.service;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.minecraftforum.config.ForumConfig;
+import com.minecraftforum.mapper.ForumPostMapper;
+import com.minecraftforum.mapper.ResourceMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分页总数服务
+ * 分页查询默认由 PaginationInnerInterceptor 执行精确的 COUNT(*)，数据量大时统计往往比查询本页更慢，
+ * 列表接口可以按需选用以下方式获取总数：
+ * 1. 条件缓存：按 查询范围 + 筛选条件签名 在 Redis 中缓存总数，短时间内翻页、刷新不再重复统计
+ * 2. 分类计数器：帖子、资源按分类维护可见数据的数量（Redis Hash），常用筛选（全部/单个分类/允许的分类）直接求和
+ *
+ * 数据变更时清除对应范围的条件缓存；计数器在新增时原子累加，修改、删除时整体重建
+ *
+ * 每次数据变更递增该范围的版本号，统计结果通过脚本校验版本号后才写入，统计期间发生的变更不会被旧结果覆盖
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PageCountService {
+
+    private static final String CACHE_KEY_PREFIX = "count:cache:"; // key格式: count:cache:post，field 为筛选条件签名
+    private static final String COUNTER_KEY_PREFIX = "count:counter:"; // key格式: count:counter:post，field 为分类
+    private static final String VERSION_KEY_PREFIX = "count:version:"; // 范围版本号，每次数据变更时递增
+
+    /**
+     * 写入缓存总数：版本号与统计前一致时才写入，Hash 新建时设置过期时间
+     * KEYS[1] 缓存 Hash，KEYS[2] 版本号；ARGV[1] 统计前的版本号，ARGV[2] 过期秒数，ARGV[3] 条件签名，ARGV[4] 总数
+     */
+    private static final RedisScript<Long> WRITE_CACHE_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[2]) or '' "
+                    + "if current ~= ARGV[1] then return 0 end "
+                    + "redis.call('HSET', KEYS[1], ARGV[3], ARGV[4]) "
+                    + "if redis.call('TTL', KEYS[1]) < 0 then redis.call('EXPIRE', KEYS[1], ARGV[2]) end "
+                    + "return 1", Long.class);
+
+    /**
+     * 写入分类计数器：版本号与统计前一致且计数器不存在时才写入
+     * KEYS[1] 计数器，KEYS[2] 版本号；ARGV[1] 统计前的版本号，ARGV[2] 过期秒数，ARGV[3..] 分类与数量交替
+     */
+    private static final RedisScript<Long> WRITE_COUNTER_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[2]) or '' "
+                    + "if current ~= ARGV[1] or redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+                    + "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1", Long.class);
+
+    /**
+     * 新增数据：递增版本号，计数器已加载时累加分类数量，清除缓存总数
+     * KEYS[1] 缓存 Hash，KEYS[2] 计数器，KEYS[3] 版本号；ARGV[1] 分类（空字符串表示不计入计数器）
+     */
+    private static final RedisScript<Long> CREATE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[3]) "
+                    + "if ARGV[1] ~= '' and redis.call('EXISTS', KEYS[2]) == 1 then redis.call('HINCRBY', KEYS[2], ARGV[1], 1) end "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "return 1", Long.class);
+
+    /**
+     * 修改或删除数据：递增版本号，清除缓存总数和计数器
+     * KEYS[1] 缓存 Hash，KEYS[2] 计数器，KEYS[3] 版本号
+     */
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[3]) "
+                    + "redis.call('DEL', KEYS[1], KEYS[2]) "
+                    + "return 1", Long.class);
+
+    /**
+     * 查询范围
+     */
+    @Getter
+    public enum CountScope {
+        POST("post"),
+        RESOURCE("resource"),
+        COMMENT("comment"),
+        USER("user"),
+        FILE("file"),
+        PERMISSION("permission");
+
+        private final String keySegment;
+
+        CountScope(String keySegment) {
+            this.keySegment = keySegment;
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final ForumPostMapper postMapper;
+    private final ResourceMapper resourceMapper;
+    private final ForumConfig forumConfig;
+
+    /**
+     * 分页查询，总数按筛选条件缓存
+     * @param signature 筛选条件签名，相同条件必须得到相同签名（不包含页码和排序）
+     */
+    public <T> IPage<T> selectPage(BaseMapper<T> mapper, Page<T> page, Wrapper<T> wrapper,
+                                   CountScope scope, String signature) {
+        String key = CACHE_KEY_PREFIX + scope.getKeySegment();
+        String field = DigestUtils.md5DigestAsHex(signature.getBytes(StandardCharsets.UTF_8));
+
+        Long cached = readCachedCount(key, field);
+        if (cached != null) {
+            return selectPage(mapper, page, wrapper, cached);
+        }
+
+        String version = readVersion(scope);
+        IPage<T> result = mapper.selectPage(page, wrapper);
+        writeCachedCount(scope, version, field, result.getTotal());
+        return result;
+    }
+
+    /**
+     * 分页查询，使用已知的总数，不再执行 COUNT
+     * 页码超出总数时直接返回空页
+     */
+    public <T> IPage<T> selectPage(BaseMapper<T> mapper, Page<T> page, Wrapper<T> wrapper, long total) {
+        page.setSearchCount(false);
+        page.setTotal(total);
+        if (total <= 0 || page.offset() >= total) {
+            page.setRecords(new ArrayList<>());
+            return page;
+        }
+        IPage<T> result = mapper.selectPage(page, wrapper);
+        result.setTotal(total);
+        return result;
+    }
+
+    /**
+     * 查询分类计数器
+     * @param scope 查询范围，只支持 POST（正常状态的帖子）和 RESOURCE（已审核的资源）
+     * @param categories 分类列表，null 表示全部分类
+     */
+    public long getCategoryCount(CountScope scope, Collection<String> categories) {
+        Map<String, Long> counters = getCounters(scope);
+        if (categories == null) {
+            return counters.values().stream().mapToLong(Long::longValue).sum();
+        }
+        long total = 0;
+        for (String category : categories) {
+            total += counters.getOrDefault(category, 0L);
+        }
+        return total;
+    }
+
+    /**
+     * 新增数据后更新分类计数器并清除该范围的缓存总数（事务提交后执行）
+     * 计数器未加载时不处理，下次查询时从数据库完整统计
+     * @param category 新数据的分类，null 表示不计入分类计数器（如待审核的资源）
+     */
+    public void onCreated(CountScope scope, String category) {
+        afterCommit(() -> redisTemplate.execute(CREATE_SCRIPT, buildKeys(scope), category != null ? category : ""));
+    }
+
+    /**
+     * 数据修改或删除后清除该范围的缓存总数和分类计数器（事务提交后执行）
+     */
+    public void evict(CountScope scope) {
+        afterCommit(() -> redisTemplate.execute(EVICT_SCRIPT, buildKeys(scope)));
+    }
+
+    private Map<String, Long> getCounters(CountScope scope) {
+        String counterKey = COUNTER_KEY_PREFIX + scope.getKeySegment();
+        try {
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(counterKey);
+            if (!entries.isEmpty()) {
+                Map<String, Long> counters = new HashMap<>();
+                entries.forEach((category, count) -> counters.put(String.valueOf(category), Long.parseLong(String.valueOf(count))));
+                return counters;
+            }
+        } catch (Exception e) {
+            log.warn("读取分类计数器失败，回退到数据库统计: key={}, error={}", counterKey, e.getMessage());
+            return loadCounters(scope);
+        }
+
+        String version = readVersion(scope);
+        Map<String, Long> counters = loadCounters(scope);
+        if (!counters.isEmpty() && version != null) {
+            try {
+                List<String> args = new ArrayList<>();
+                args.add(version);
+                args.add(String.valueOf(forumConfig.getCategoryCounterTtl()));
+                counters.forEach((category, count) -> {
+                    args.add(category);
+                    args.add(String.valueOf(count));
+                });
+                redisTemplate.execute(WRITE_COUNTER_SCRIPT,
+                        List.of(counterKey, VERSION_KEY_PREFIX + scope.getKeySegment()), args.toArray());
+            } catch (Exception e) {
+                log.warn("写入分类计数器失败: key={}, error={}", counterKey, e.getMessage());
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * 从数据库按分类统计
+     */
+    private Map<String, Long> loadCounters(CountScope scope) {
+        List<Map<String, Object>> rows;
+        switch (scope) {
+            case POST:
+                rows = postMapper.countByCategory("NORMAL");
+                break;
+            case RESOURCE:
+                rows = resourceMapper.countByCategory("APPROVED");
+                break;
+            default:
+                throw new IllegalArgumentException("不支持分类计数器: " + scope);
+        }
+        Map<String, Long> counters = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            counters.put(String.valueOf(row.get("category")), ((Number) row.get("total")).longValue());
+        }
+        return counters;
+    }
+
+    private Long readCachedCount(String key, String field) {
+        try {
+            Object value = redisTemplate.opsForHash().get(key, field);
+            return value != null ? Long.parseLong(value.toString()) : null;
+        } catch (Exception e) {
+            log.warn("读取缓存总数失败: key={}, error={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 读取范围版本号，未设置时返回空字符串；读取失败返回 null，此时不写入统计结果
+     */
+    private String readVersion(CountScope scope) {
+        try {
+            String version = redisTemplate.opsForValue().get(VERSION_KEY_PREFIX + scope.getKeySegment());
+            return version != null ? version : "";
+        } catch (Exception e) {
+            log.warn("读取分页总数版本号失败: scope={}, error={}", scope, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCachedCount(CountScope scope, String version, String field, long total) {
+        if (version == null) {
+            return;
+        }
+        String key = CACHE_KEY_PREFIX + scope.getKeySegment();
+        try {
+            // 只在新建时设置过期时间，整个 Hash 到期后一起失效
+            redisTemplate.execute(WRITE_CACHE_SCRIPT, List.of(key, VERSION_KEY_PREFIX + scope.getKeySegment()),
+                    version, String.valueOf(forumConfig.getPageCountCacheTtl()), field, String.valueOf(total));
+        } catch (Exception e) {
+            log.warn("写入缓存总数失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    private List<String> buildKeys(CountScope scope) {
+        return List.of(CACHE_KEY_PREFIX + scope.getKeySegment(),
+                COUNTER_KEY_PREFIX + scope.getKeySegment(),
+                VERSION_KEY_PREFIX + scope.getKeySegment());
+    }
+
+    private void afterCommit(Runnable action) {
+        Runnable safeAction = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.warn("清除分页总数缓存失败", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    safeAction.run();
+                }
+            });
+        } else {
+            safeAction.run();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.minecraftforum.service;
+
+import com.minecraftforum.mapper.ForumPostMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 帖子浏览量计数服务
+ * 浏览量先累加在内存计数器中，由定时任务批量回写数据库，避免每次浏览都更新 forum_post 行
+ * 多节点部署时各节点只回写自己的增量，互不影响
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostViewCountService {
+    
+    private static final int FLUSH_BATCH_SIZE = 500; // 单条 UPDATE 最多包含的帖子数
+    
+    private final ForumPostMapper postMapper;
+    
+    /**
+     * 帖子ID -> 尚未回写的浏览量增量
+     */
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    
+    /**
+     * 记录一次浏览
+     */
+    public void recordView(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        // 计数器已存在时 computeIfAbsent 不加锁，热门帖子的并发累加由 LongAdder 分散
+        LongAdder counter = pendingViews.computeIfAbsent(postId, id -> new LongAdder());
+        counter.increment();
+        // 计数器在累加前后被回写任务移出时，把累加的值转回计数表
+        if (pendingViews.get(postId) != counter) {
+            restore(postId, counter);
+        }
+    }
+    
+    /**
+     * 获取尚未回写到数据库的浏览量，读取时与数据库中的值合并
+     */
+    public long getPendingViews(Long postId) {
+        LongAdder adder = postId != null ? pendingViews.get(postId) : null;
+        return adder != null ? adder.sum() : 0L;
+    }
+    
+    /**
+     * 定时回写浏览量增量
+     */
+    @Scheduled(fixedDelayString = "${forum.view-count-flush-interval:10000}")
+    public void flush() {
+        if (pendingViews.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, Long> batch = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                batch.put(entry.getKey(), delta);
+                if (batch.size() >= FLUSH_BATCH_SIZE) {
+                    applyBatch(batch);
+                    batch = new HashMap<>();
+                }
+            } else {
+                // 一个周期内没有新浏览的帖子移出计数表，控制内存占用；移出后再次检查，期间的浏览转回计数表
+                if (pendingViews.remove(entry.getKey(), entry.getValue())) {
+                    restore(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            applyBatch(batch);
+        }
+    }
+    
+    /**
+     * 应用关闭前回写剩余的浏览量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    private void applyBatch(Map<Long, Long> batch) {
+        try {
+            postMapper.batchIncrementViewCount(batch);
+        } catch (Exception e) {
+            // 回写失败时把增量放回计数器，下个周期重试
+            log.error("回写帖子浏览量失败，将在下个周期重试: size={}", batch.size(), e);
+            batch.forEach((postId, delta) -> pendingViews.computeIfAbsent(postId, id -> new LongAdder()).add(delta));
+        }
+    }
+    
+    /**
+     * 把已移出计数表的计数器中剩余的浏览量转回计数表
+     */
+    private void restore(Long postId, LongAdder removed) {
+        long delta = removed.sumThenReset();
+        if (delta > 0) {
+            pendingViews.computeIfAbsent(postId, id -> new LongAdder()).add(delta);
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.minecraftforum.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.minecraftforum.dto.CursorPage;
 import com.minecraftforum.dto.ResourceDTO;
 import com.minecraftforum.entity.Resource;
 
 public interface ResourceService {
     IPage<ResourceDTO> getResourceList(Page<Resource> page, String category, String keyword, Long authorId);
+    CursorPage<ResourceDTO> getResourceFeed(String cursor, Integer pageSize, String category, String keyword, Long authorId, String sortBy); // 游标分页，不统计总数
     IPage<ResourceDTO> getAllResourceList(Page<Resource> page, String category, String keyword, Long authorId);
     IPage<ResourceDTO> getAllResourceList(Page<Resource> page, String category, String keyword, Long authorId, String status);
     ResourceDTO getResourceById(Long id);
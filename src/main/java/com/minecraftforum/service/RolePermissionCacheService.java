@@ -0,0 +1,161 @@
+package com.minecraftforum.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minecraftforum.entity.UserRole;
+import com.minecraftforum.event.PermissionConfigChangedEvent;
+import com.minecraftforum.mapper.PermissionMapper;
+import com.minecraftforum.mapper.UserRoleMapper;
+import com.minecraftforum.security.GrantedPermissions;
+import com.minecraftforum.util.LocalCache;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 角色权限缓存服务
+ * Token 中只保存用户的角色ID，请求时按角色组合解析出权限代码：
+ * 本地缓存 -> Redis（perm:roles:{角色ID列表}）-> 数据库，本地缓存保存预先构建好的不可变权限集合
+ *
+ * 缓存内容都带有权限配置版本号，权限或角色权限变更后版本号递增，旧版本的缓存自动失效，
+ * 因此角色权限变更不再需要改写任何用户的 Token
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RolePermissionCacheService {
+
+    private static final String REDIS_KEY_PREFIX = "perm:roles:"; // key格式: perm:roles:1,3
+    private static final long CACHE_EXPIRE_HOURS = 24; // Redis 缓存过期时间：24小时
+    private static final int LOCAL_CACHE_SIZE = 1000; // 本地缓存的角色组合数量上限
+
+    private final PermissionMapper permissionMapper;
+    private final UserRoleMapper userRoleMapper;
+    private final PermissionCacheService permissionCacheService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 本地缓存：角色组合 key -> 带版本号的权限集合（同一角色组合的请求共享同一个不可变对象）
+     */
+    private final LocalCache<String, LocalEntry> localCache = new LocalCache<>(LOCAL_CACHE_SIZE, 0);
+
+    private static final class LocalEntry {
+        private final long version;
+        private final GrantedPermissions permissions;
+
+        private LocalEntry(long version, GrantedPermissions permissions) {
+            this.version = version;
+            this.permissions = permissions;
+        }
+    }
+
+    /**
+     * 带版本号的权限代码列表
+     */
+    @Data
+    @NoArgsConstructor
+    public static class CachedCodes {
+        private long version;
+        private List<String> codes;
+
+        public CachedCodes(long version, List<String> codes) {
+            this.version = version;
+            this.codes = codes;
+        }
+    }
+
+    /**
+     * 查询用户的角色ID（升序）
+     */
+    public List<Long> getUserRoleIds(Long userId) {
+        if (userId == null) {
+            return List.of();
+        }
+        LambdaQueryWrapper<UserRole> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(UserRole::getRoleId);
+        wrapper.eq(UserRole::getUserId, userId);
+        return userRoleMapper.selectList(wrapper).stream()
+                .map(UserRole::getRoleId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取一组角色拥有的权限集合
+     */
+    public GrantedPermissions getGrantedPermissions(Collection<Long> roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) {
+            return GrantedPermissions.empty();
+        }
+        String roleKey = buildRoleKey(roleIds);
+        long version = permissionCacheService.getRouteMatcher().getVersion();
+
+        LocalEntry local = localCache.get(roleKey);
+        if (local != null && local.version == version) {
+            return local.permissions;
+        }
+
+        CachedCodes cached = readFromRedis(roleKey);
+        if (cached == null || cached.getVersion() != version || cached.getCodes() == null) {
+            List<String> codes = permissionMapper.selectCodesByRoleIds(roleIds);
+            cached = new CachedCodes(version, codes);
+            writeToRedis(roleKey, cached);
+        }
+
+        GrantedPermissions permissions = GrantedPermissions.of(cached.getCodes());
+        localCache.put(roleKey, new LocalEntry(version, permissions));
+        return permissions;
+    }
+
+    /**
+     * 权限配置变更后清空本地缓存（版本号已变化，旧条目不会再被使用，这里只是释放内存）
+     */
+    @EventListener
+    public void onPermissionConfigChanged(PermissionConfigChangedEvent event) {
+        localCache.invalidateAll();
+    }
+
+    private CachedCodes readFromRedis(String roleKey) {
+        try {
+            String json = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + roleKey);
+            return json != null ? objectMapper.readValue(json, CachedCodes.class) : null;
+        } catch (Exception e) {
+            log.warn("读取角色权限缓存失败: roles={}, error={}", roleKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToRedis(String roleKey, CachedCodes cached) {
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + roleKey, objectMapper.writeValueAsString(cached),
+                    CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        } catch (Exception e) {
+            log.warn("写入角色权限缓存失败: roles={}, error={}", roleKey, e.getMessage());
+        }
+    }
+
+    /**
+     * 角色组合 key：去重后升序拼接，如 1,3
+     */
+    private String buildRoleKey(Collection<Long> roleIds) {
+        return roleIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+}
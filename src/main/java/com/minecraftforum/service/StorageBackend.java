@@ -0,0 +1,151 @@
+package com.minecraftforum.service;
+
+import lombok.Getter;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 文件存储后端
+ * 文件上传、下载、删除都通过该接口访问存储，对象键为存储内的相对路径（如 files/123.zip、avatar/456.png）
+ * 由 file.storage-type 选择实现：oss-阿里云OSS（默认），local-本地磁盘
+ */
+public interface StorageBackend {
+    
+    /**
+     * 上传文件
+     * @param objectKey 对象键
+     * @param inputStream 文件内容，由调用方负责关闭
+     * @param contentLength 文件大小（字节）
+     * @param contentType 文件类型，可为 null
+     * @return 文件访问 URL
+     */
+    String upload(String objectKey, InputStream inputStream, long contentLength, String contentType);
+    
+    /**
+     * 读取文件内容
+     * @param objectKey 对象键
+     * @return 文件输入流，由调用方负责关闭
+     */
+    InputStream download(String objectKey);
+    
+    /**
+     * 读取文件的一段内容
+     * @param objectKey 对象键
+     * @param start 起始位置（包含）
+     * @param end 结束位置（包含）
+     * @return 该区间内容的输入流，由调用方负责关闭
+     */
+    InputStream download(String objectKey, long start, long end);
+    
+    /**
+     * 删除文件
+     * @param objectKey 对象键
+     */
+    void delete(String objectKey);
+    
+    /**
+     * 获取文件在本地磁盘上的路径，用于零拷贝发送
+     * @param objectKey 对象键
+     * @return 本地路径，不是本地存储或文件不存在时返回 null
+     */
+    default Path getLocalPath(String objectKey) {
+        return null;
+    }
+    
+    /**
+     * 获取文件访问 URL
+     * @param objectKey 对象键
+     */
+    String getUrl(String objectKey);
+    
+    /**
+     * 生成直传上传地址，客户端使用 PUT 请求直接把文件内容上传到存储，不经过应用服务器
+     * @param objectKey 对象键
+     * @param contentType 文件类型，上传时请求头 Content-Type 必须与此一致
+     * @param expireSeconds 有效期（秒）
+     * @return 上传地址
+     */
+    String generateUploadUrl(String objectKey, String contentType, long expireSeconds);
+    
+    /**
+     * 使用直传地址上传时客户端必须携带的请求头
+     * @param contentType 文件类型，与生成直传地址时一致
+     * @return 请求头名称 -> 值
+     */
+    default Map<String, String> getUploadHeaders(String contentType) {
+        return Map.of("Content-Type", contentType);
+    }
+    
+    /**
+     * 生成直连下载地址，客户端使用 GET 请求直接从存储下载
+     * @param objectKey 对象键
+     * @param fileName 下载保存的文件名
+     * @param expireSeconds 有效期（秒）
+     * @return 下载地址
+     */
+    String generateDownloadUrl(String objectKey, String fileName, long expireSeconds);
+    
+    /**
+     * 查询已上传文件的信息
+     * @param objectKey 对象键
+     * @return 文件信息，文件不存在时返回 null
+     */
+    StoredObject stat(String objectKey);
+    
+    /**
+     * 开始分片上传
+     * @param objectKey 对象键
+     * @param contentType 文件类型，可为 null
+     * @return 存储分配的分片上传ID
+     */
+    String initiateMultipartUpload(String objectKey, String contentType);
+    
+    /**
+     * 上传一个分片，同一分片重复上传时覆盖
+     * @param objectKey 对象键
+     * @param uploadId 分片上传ID
+     * @param partNumber 分片序号，从 1 开始
+     * @param inputStream 分片内容，由调用方负责关闭
+     * @param partSize 分片大小（字节）
+     * @return 分片标识（OSS 为分片 ETag），完成上传时原样传回
+     */
+    String uploadPart(String objectKey, String uploadId, int partNumber, InputStream inputStream, long partSize);
+    
+    /**
+     * 完成分片上传，按分片序号合并为一个文件
+     * @param objectKey 对象键
+     * @param uploadId 分片上传ID
+     * @param parts 分片序号 -> 分片标识，必须包含全部分片
+     */
+    void completeMultipartUpload(String objectKey, String uploadId, Map<Integer, String> parts);
+    
+    /**
+     * 取消分片上传，删除已上传的分片
+     * @param objectKey 对象键
+     * @param uploadId 分片上传ID
+     */
+    void abortMultipartUpload(String objectKey, String uploadId);
+    
+    /**
+     * 存储中的文件信息
+     */
+    @Getter
+    final class StoredObject {
+        /**
+         * 文件大小（字节）
+         */
+        private final long size;
+        
+        /**
+         * 文件内容的MD5（十六进制小写），存储无法提供时为 null
+         */
+        private final String contentHash;
+        
+        public StoredObject(long size, String contentHash) {
+            this.size = size;
+            this.contentHash = contentHash;
+        }
+    }
+}
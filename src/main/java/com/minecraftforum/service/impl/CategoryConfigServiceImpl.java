@@ -3,6 +3,7 @@ package com.minecraftforum.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.minecraftforum.entity.CategoryConfig;
 import com.minecraftforum.mapper.CategoryConfigMapper;
+import com.minecraftforum.service.CategoryConfigCacheService;
 import com.minecraftforum.service.CategoryConfigService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -15,14 +16,16 @@ import java.util.List;
 public class CategoryConfigServiceImpl implements CategoryConfigService {
     
     private final CategoryConfigMapper categoryConfigMapper;
+    private final CategoryConfigCacheService categoryConfigCacheService;
     
     @Override
     public List<CategoryConfig> getEnabledConfigs(String type) {
-        LambdaQueryWrapper<CategoryConfig> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(CategoryConfig::getType, type);
-        wrapper.eq(CategoryConfig::getStatus, 1);
-        wrapper.orderByAsc(CategoryConfig::getSortOrder);
-        return categoryConfigMapper.selectList(wrapper);
+        return categoryConfigCacheService.getEnabledConfigs(type);
+    }
+    
+    @Override
+    public String getEnabledConfigsETag(String type) {
+        return categoryConfigCacheService.getEnabledConfigsETag(type);
     }
     
     @Override
@@ -54,6 +57,7 @@ public class CategoryConfigServiceImpl implements CategoryConfigService {
             config.setIsDefault(0);
         }
         categoryConfigMapper.insert(config);
+        categoryConfigCacheService.publishChange();
         return config;
     }
     
@@ -61,12 +65,14 @@ public class CategoryConfigServiceImpl implements CategoryConfigService {
     public CategoryConfig updateConfig(CategoryConfig config) {
         config.setUpdateTime(LocalDateTime.now());
         categoryConfigMapper.updateById(config);
+        categoryConfigCacheService.publishChange();
         return config;
     }
     
     @Override
     public void deleteConfig(Long id) {
         categoryConfigMapper.deleteById(id);
+        categoryConfigCacheService.publishChange();
     }
 }
 
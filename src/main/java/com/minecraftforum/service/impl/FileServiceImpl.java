@@ -1,36 +1,68 @@
 package com.minecraftforum.service.impl;
 
-import com.aliyun.oss.OSS;
-import com.aliyun.oss.OSSClientBuilder;
-import com.aliyun.oss.model.PutObjectRequest;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.minecraftforum.config.OssConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minecraftforum.config.FileStorageConfig;
+import com.minecraftforum.dto.ChunkUploadInitRequest;
+import com.minecraftforum.dto.DirectUploadRequest;
 import com.minecraftforum.entity.SysFile;
 import com.minecraftforum.mapper.SysFileMapper;
 import com.minecraftforum.service.FileService;
+import com.minecraftforum.service.PageCountService;
+import com.minecraftforum.service.PageCountService.CountScope;
+import com.minecraftforum.service.StorageBackend;
 import com.minecraftforum.util.ResourceUtil;
 import com.minecraftforum.util.SnowflakeIdGenerator;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FileServiceImpl implements FileService {
     
-    private final OssConfig ossConfig;
+    private static final String UPLOAD_TICKET_PREFIX = "file:upload:ticket:"; // key格式: file:upload:ticket:{凭证}
+    private static final long UPLOAD_TICKET_EXTRA_SECONDS = 24 * 60 * 60; // 凭证在上传地址过期后的保留时间，留给大文件上传：24小时
+    private static final String PENDING_UPLOAD_KEY = "file:upload:pending"; // 未登记的直传文件，ZSet，member 为文件名，score 为凭证过期时间（毫秒）
+    private static final int PENDING_CLEAN_BATCH = 500; // 每次清理的最大数量
+    private static final String CHUNK_SESSION_PREFIX = "file:chunk:session:"; // key格式: file:chunk:session:{上传ID}
+    private static final String CHUNK_PARTS_PREFIX = "file:chunk:parts:"; // key格式: file:chunk:parts:{上传ID}，field 为分片序号
+    private static final String CHUNK_RESUME_PREFIX = "file:chunk:resume:"; // key格式: file:chunk:resume:{用户ID}:{文件MD5}:{文件大小}
+    private static final String CHUNK_LOCK_PREFIX = "file:chunk:lock:"; // 合并分片时的锁
+    private static final String CHUNK_DONE_PREFIX = "file:chunk:done:"; // key格式: file:chunk:done:{上传ID}，值为登记的文件ID
+    private static final long CHUNK_LOCK_MINUTES = 10;
+    private static final int MAX_CHUNKS = 10000; // 最大分片数量，与 OSS 分片上传的限制一致
+    
+    private final StorageBackend storageBackend;
     private final SysFileMapper sysFileMapper;
+    private final PageCountService pageCountService;
+    private final FileStorageConfig fileStorageConfig;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
     private final SnowflakeIdGenerator idGenerator = SnowflakeIdGenerator.getInstance();
     
     @Override
@@ -44,51 +76,19 @@ public class FileServiceImpl implements FileService {
             throw new IllegalArgumentException("文件名不能为空");
         }
         
-        // 获取文件扩展名
-        String extension = "";
-        int lastDotIndex = originalFilename.lastIndexOf('.');
-        if (lastDotIndex > 0) {
-            extension = originalFilename.substring(lastDotIndex);
-        }
-        
         // 使用雪花算法生成唯一文件名
-        String uniqueFileName = idGenerator.nextId() + extension;
+        String uniqueFileName = generateFileName(originalFilename);
         
-        // 构建 OSS 对象键（路径）
+        // 构建对象键（路径）
         String objectKey = "files/" + uniqueFileName;
         
-        OSS ossClient = null;
         InputStream inputStream = null;
         
         try {
-            // 创建 OSS 客户端
-            ossClient = new OSSClientBuilder().build(
-                    ossConfig.getEndpoint(),
-                    ossConfig.getAccessKeyId(),
-                    ossConfig.getAccessKeySecret()
-            );
-            
-            // 上传文件
-            inputStream = file.getInputStream();
-            PutObjectRequest putObjectRequest = new PutObjectRequest(
-                    ossConfig.getBucketName(),
-                    objectKey,
-                    inputStream
-            );
-            ossClient.putObject(putObjectRequest);
-            
-            // 构建文件访问 URL
-            String domain = ossConfig.getDomain();
-            String fileUrl;
-            if (domain != null && domain.endsWith("/")) {
-                fileUrl = domain + objectKey;
-            } else if (domain != null) {
-                fileUrl = domain + "/" + objectKey;
-            } else {
-                // 如果没有配置域名，使用 endpoint 和 bucket 构建
-                String endpoint = ossConfig.getEndpoint().replace("https://", "").replace("http://", "");
-                fileUrl = "https://" + ossConfig.getBucketName() + "." + endpoint + "/" + objectKey;
-            }
+            // 上传文件，同时计算内容的MD5
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            inputStream = new DigestInputStream(file.getInputStream(), digest);
+            String fileUrl = storageBackend.upload(objectKey, inputStream, file.getSize(), file.getContentType());
             
             // 保存文件信息到数据库
             SysFile sysFile = new SysFile();
@@ -98,12 +98,14 @@ public class FileServiceImpl implements FileService {
             sysFile.setFileUrl(fileUrl);
             sysFile.setFileSize(file.getSize());
             sysFile.setFileType(file.getContentType());
+            sysFile.setContentHash(HexFormat.of().formatHex(digest.digest()));
             sysFile.setCreateUser(userId);
             sysFile.setUpdateUser(userId);
             sysFile.setCreateTime(LocalDateTime.now());
             sysFile.setUpdateTime(LocalDateTime.now());
             
             sysFileMapper.insert(sysFile);
+            pageCountService.evict(CountScope.FILE);
             
             log.info("文件上传成功: originalName={}, fileName={}, fileUrl={}", 
                     originalFilename, uniqueFileName, fileUrl);
@@ -114,8 +116,7 @@ public class FileServiceImpl implements FileService {
             log.error("文件上传失败: {}", e.getMessage(), e);
             throw new RuntimeException("文件上传失败: " + e.getMessage(), e);
         } finally {
-            // 关闭流和 OSS 客户端
-            ResourceUtil.closeResources(inputStream, ossClient);
+            ResourceUtil.closeQuietly(inputStream);
         }
     }
     
@@ -137,50 +138,28 @@ public class FileServiceImpl implements FileService {
     }
     
     @Override
-    public Map<String, Object> downloadFile(Long fileId) {
-        SysFile sysFile = sysFileMapper.selectById(fileId);
-        if (sysFile == null) {
-            throw new IllegalArgumentException("文件不存在");
-        }
-        
-        OSS ossClient = null;
-        InputStream inputStream = null;
-        
+    public InputStream openFileStream(SysFile sysFile, long start, long end) {
+        String objectKey = "files/" + sysFile.getFileName();
         try {
-            // 创建 OSS 客户端
-            ossClient = new OSSClientBuilder().build(
-                    ossConfig.getEndpoint(),
-                    ossConfig.getAccessKeyId(),
-                    ossConfig.getAccessKeySecret()
-            );
-            
-            // 构建 OSS 对象键（路径）
-            String objectKey = "files/" + sysFile.getFileName();
-            
-            // 从 OSS 获取文件流
-            inputStream = ossClient.getObject(ossConfig.getBucketName(), objectKey).getObjectContent();
-            
-            // 构建返回结果
-            Map<String, Object> result = new HashMap<>();
-            result.put("inputStream", inputStream);
-            result.put("fileName", sysFile.getOriginalName());
-            result.put("fileSize", sysFile.getFileSize());
-            result.put("contentType", sysFile.getFileType());
-            
-            // 注意：这里返回的 inputStream 需要调用者负责关闭
-            // 但为了保持 OSS 客户端的生命周期，我们将 OSS 客户端也放入结果中
-            result.put("ossClient", ossClient);
-            
-            return result;
-            
+            // 请求完整文件时不带范围读取
+            long fileSize = sysFile.getFileSize() != null ? sysFile.getFileSize() : -1;
+            if (start == 0 && end >= fileSize - 1) {
+                return storageBackend.download(objectKey);
+            }
+            return storageBackend.download(objectKey, start, end);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
-            // 如果出错，关闭已创建的流和客户端
-            ResourceUtil.closeResources(inputStream, ossClient);
             log.error("文件下载失败: {}", e.getMessage(), e);
             throw new RuntimeException("文件下载失败: " + e.getMessage(), e);
         }
     }
     
+    @Override
+    public Path getLocalFilePath(SysFile sysFile) {
+        return storageBackend.getLocalPath("files/" + sysFile.getFileName());
+    }
+    
     @Override
     public void deleteFile(Long id) {
         SysFile sysFile = sysFileMapper.selectById(id);
@@ -188,30 +167,341 @@ public class FileServiceImpl implements FileService {
             throw new IllegalArgumentException("文件不存在");
         }
         
-        OSS ossClient = null;
         try {
-            // 创建 OSS 客户端
-            ossClient = new OSSClientBuilder().build(
-                    ossConfig.getEndpoint(),
-                    ossConfig.getAccessKeyId(),
-                    ossConfig.getAccessKeySecret()
-            );
-            
-            // 从 OSS 删除文件
-            String objectKey = "files/" + sysFile.getFileName();
-            ossClient.deleteObject(ossConfig.getBucketName(), objectKey);
+            // 从存储删除文件
+            storageBackend.delete("files/" + sysFile.getFileName());
             
             // 从数据库删除记录
             sysFileMapper.deleteById(id);
+            pageCountService.evict(CountScope.FILE);
             
             log.info("文件删除成功: id={}, fileName={}", id, sysFile.getFileName());
             
         } catch (Exception e) {
             log.error("文件删除失败: {}", e.getMessage(), e);
             throw new RuntimeException("文件删除失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Map<String, Object> createDirectUpload(DirectUploadRequest request, Long userId) {
+        String originalFilename = request.getFileName();
+        if (!StringUtils.hasText(originalFilename)) {
+            throw new IllegalArgumentException("文件名不能为空");
+        }
+        if (request.getFileSize() == null || request.getFileSize() <= 0) {
+            throw new IllegalArgumentException("文件不能为空");
+        }
+        if (request.getFileSize() > fileStorageConfig.getDirectUploadMaxSize()) {
+            throw new IllegalArgumentException("文件大小超出限制");
+        }
+        String contentType = StringUtils.hasText(request.getContentType()) ? request.getContentType() : "application/octet-stream";
+        
+        String uniqueFileName = generateFileName(originalFilename);
+        String objectKey = "files/" + uniqueFileName;
+        long expireSeconds = fileStorageConfig.getPresignExpireSeconds();
+        String uploadUrl = storageBackend.generateUploadUrl(objectKey, contentType, expireSeconds);
+        
+        // 保存上传凭证，客户端上传完成后凭此登记文件
+        UploadTicket uploadTicket = new UploadTicket();
+        uploadTicket.setFileName(uniqueFileName);
+        uploadTicket.setOriginalName(originalFilename);
+        uploadTicket.setFileSize(request.getFileSize());
+        uploadTicket.setContentType(contentType);
+        uploadTicket.setResourceId(request.getResourceId());
+        uploadTicket.setUserId(userId);
+        String ticket = UUID.randomUUID().toString().replace("-", "");
+        long ticketExpireSeconds = expireSeconds + UPLOAD_TICKET_EXTRA_SECONDS;
+        try {
+            redisTemplate.opsForValue().set(UPLOAD_TICKET_PREFIX + ticket, objectMapper.writeValueAsString(uploadTicket),
+                    ticketExpireSeconds, TimeUnit.SECONDS);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("保存上传凭证失败", e);
+        }
+        // 凭证过期后仍未登记的文件由定时任务删除
+        redisTemplate.opsForZSet().add(PENDING_UPLOAD_KEY, uniqueFileName, System.currentTimeMillis() + ticketExpireSeconds * 1000);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("ticket", ticket);
+        result.put("uploadUrl", uploadUrl);
+        result.put("method", "PUT");
+        result.put("headers", storageBackend.getUploadHeaders(contentType));
+        result.put("expiresAt", System.currentTimeMillis() + expireSeconds * 1000);
+        return result;
+    }
+    
+    @Override
+    public SysFile completeDirectUpload(String ticket, Long userId) {
+        if (!StringUtils.hasText(ticket)) {
+            throw new IllegalArgumentException("上传凭证不能为空");
+        }
+        String key = UPLOAD_TICKET_PREFIX + ticket;
+        UploadTicket uploadTicket = readUploadTicket(key);
+        if (uploadTicket == null || !uploadTicket.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("上传凭证无效或已过期");
+        }
+        
+        // 确认文件已上传到存储且大小与申请时一致
+        String objectKey = "files/" + uploadTicket.getFileName();
+        StorageBackend.StoredObject stored = storageBackend.stat(objectKey);
+        if (stored == null) {
+            throw new IllegalArgumentException("文件尚未上传完成");
+        }
+        if (stored.getSize() != uploadTicket.getFileSize()) {
+            redisTemplate.delete(key);
+            redisTemplate.opsForZSet().remove(PENDING_UPLOAD_KEY, uploadTicket.getFileName());
+            deleteQuietly(objectKey);
+            throw new IllegalArgumentException("文件大小与申请时不一致，请重新上传");
+        }
+        
+        // 删除凭证，同一凭证只能登记一次
+        if (!Boolean.TRUE.equals(redisTemplate.delete(key))) {
+            throw new IllegalArgumentException("上传凭证无效或已过期");
+        }
+        
+        SysFile sysFile = new SysFile();
+        sysFile.setResourceId(uploadTicket.getResourceId());
+        sysFile.setOriginalName(uploadTicket.getOriginalName());
+        sysFile.setFileName(uploadTicket.getFileName());
+        sysFile.setFileUrl(storageBackend.getUrl(objectKey));
+        sysFile.setFileSize(stored.getSize());
+        sysFile.setFileType(uploadTicket.getContentType());
+        sysFile.setContentHash(stored.getContentHash());
+        sysFile.setCreateUser(userId);
+        sysFile.setUpdateUser(userId);
+        sysFile.setCreateTime(LocalDateTime.now());
+        sysFile.setUpdateTime(LocalDateTime.now());
+        
+        sysFileMapper.insert(sysFile);
+        redisTemplate.opsForZSet().remove(PENDING_UPLOAD_KEY, uploadTicket.getFileName());
+        pageCountService.evict(CountScope.FILE);
+        
+        log.info("文件直传完成: originalName={}, fileName={}, fileUrl={}",
+                sysFile.getOriginalName(), sysFile.getFileName(), sysFile.getFileUrl());
+        return sysFile;
+    }
+    
+    @Override
+    public Map<String, Object> createDirectDownload(SysFile sysFile) {
+        long expireSeconds = fileStorageConfig.getPresignExpireSeconds();
+        String url = storageBackend.generateDownloadUrl("files/" + sysFile.getFileName(), sysFile.getOriginalName(), expireSeconds);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("url", url);
+        result.put("expiresAt", System.currentTimeMillis() + expireSeconds * 1000);
+        return result;
+    }
+    
+    @Override
+    public Map<String, Object> initChunkUpload(ChunkUploadInitRequest request, Long userId) {
+        String originalFilename = request.getFileName();
+        if (!StringUtils.hasText(originalFilename)) {
+            throw new IllegalArgumentException("文件名不能为空");
+        }
+        if (request.getFileSize() == null || request.getFileSize() <= 0) {
+            throw new IllegalArgumentException("文件不能为空");
+        }
+        if (request.getFileSize() > fileStorageConfig.getDirectUploadMaxSize()) {
+            throw new IllegalArgumentException("文件大小超出限制");
+        }
+        
+        // 同一用户上传同一文件时继续未完成的上传，已接收的分片无需重新上传
+        String resumeKey = StringUtils.hasText(request.getFileHash())
+                ? CHUNK_RESUME_PREFIX + userId + ":" + request.getFileHash().toLowerCase() + ":" + request.getFileSize()
+                : null;
+        if (resumeKey != null) {
+            String existingUploadId = redisTemplate.opsForValue().get(resumeKey);
+            ChunkUploadSession existing = existingUploadId != null ? readChunkSession(existingUploadId) : null;
+            if (existing != null && existing.getUserId().equals(userId)) {
+                return buildChunkStatus(existingUploadId, existing);
+            }
+        }
+        
+        long chunkSize = fileStorageConfig.getChunkSize();
+        long totalChunks = (request.getFileSize() + chunkSize - 1) / chunkSize;
+        if (totalChunks > MAX_CHUNKS) {
+            throw new IllegalArgumentException("分片数量超出限制");
+        }
+        
+        String contentType = StringUtils.hasText(request.getContentType()) ? request.getContentType() : "application/octet-stream";
+        String uniqueFileName = generateFileName(originalFilename);
+        String storageUploadId = storageBackend.initiateMultipartUpload("files/" + uniqueFileName, contentType);
+        
+        ChunkUploadSession session = new ChunkUploadSession();
+        session.setFileName(uniqueFileName);
+        session.setOriginalName(originalFilename);
+        session.setFileSize(request.getFileSize());
+        session.setContentType(contentType);
+        session.setResourceId(request.getResourceId());
+        session.setUserId(userId);
+        session.setChunkSize(chunkSize);
+        session.setTotalChunks((int) totalChunks);
+        session.setStorageUploadId(storageUploadId);
+        session.setResumeKey(resumeKey);
+        
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        try {
+            redisTemplate.opsForValue().set(CHUNK_SESSION_PREFIX + uploadId, objectMapper.writeValueAsString(session),
+                    fileStorageConfig.getChunkUploadExpireHours(), TimeUnit.HOURS);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("保存分片上传信息失败", e);
+        }
+        if (resumeKey != null) {
+            redisTemplate.opsForValue().set(resumeKey, uploadId, fileStorageConfig.getChunkUploadExpireHours(), TimeUnit.HOURS);
+        }
+        
+        log.info("分片上传开始: uploadId={}, originalName={}, fileSize={}, totalChunks={}",
+                uploadId, originalFilename, request.getFileSize(), totalChunks);
+        return buildChunkStatus(uploadId, session);
+    }
+    
+    @Override
+    public boolean uploadChunk(String uploadId, int partNumber, InputStream inputStream, long contentLength, Long userId) {
+        ChunkUploadSession session = getChunkSession(uploadId, userId);
+        if (partNumber < 1 || partNumber > session.getTotalChunks()) {
+            throw new IllegalArgumentException("分片序号错误");
+        }
+        // 除最后一个分片外，分片大小都是 chunkSize
+        long expectedSize = partNumber < session.getTotalChunks()
+                ? session.getChunkSize()
+                : session.getFileSize() - session.getChunkSize() * (session.getTotalChunks() - 1);
+        if (contentLength != expectedSize) {
+            throw new IllegalArgumentException("分片大小错误，应为 " + expectedSize + " 字节");
+        }
+        
+        String partsKey = CHUNK_PARTS_PREFIX + uploadId;
+        String field = String.valueOf(partNumber);
+        if (Boolean.TRUE.equals(redisTemplate.opsForHash().hasKey(partsKey, field))) {
+            return false;
+        }
+        
+        String objectKey = "files/" + session.getFileName();
+        String partTag = storageBackend.uploadPart(objectKey, session.getStorageUploadId(), partNumber, inputStream, expectedSize);
+        
+        // 每个分片单独写入 Hash，并行上传互不覆盖；有上传活动时延长保留时间
+        redisTemplate.opsForHash().put(partsKey, field, partTag);
+        long expireHours = fileStorageConfig.getChunkUploadExpireHours();
+        redisTemplate.expire(partsKey, expireHours, TimeUnit.HOURS);
+        redisTemplate.expire(CHUNK_SESSION_PREFIX + uploadId, expireHours, TimeUnit.HOURS);
+        if (session.getResumeKey() != null) {
+            redisTemplate.expire(session.getResumeKey(), expireHours, TimeUnit.HOURS);
+        }
+        return true;
+    }
+    
+    @Override
+    public Map<String, Object> getChunkUploadStatus(String uploadId, Long userId) {
+        return buildChunkStatus(uploadId, getChunkSession(uploadId, userId));
+    }
+    
+    @Override
+    public SysFile completeChunkUpload(String uploadId, Long userId) {
+        // 已完成的上传直接返回登记的文件（上一次的响应丢失后客户端重试）
+        SysFile completed = getCompletedChunkUpload(uploadId, userId);
+        if (completed != null) {
+            return completed;
+        }
+        ChunkUploadSession session = getChunkSession(uploadId, userId);
+        Map<Integer, String> parts = getUploadedParts(uploadId);
+        if (parts.size() < session.getTotalChunks()) {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 1; i <= session.getTotalChunks() && missing.size() < 20; i++) {
+                if (!parts.containsKey(i)) {
+                    missing.add(i);
+                }
+            }
+            throw new IllegalArgumentException("分片未上传完成，缺少分片: " + missing);
+        }
+        
+        // 同一上传只允许一个请求执行合并
+        String lockKey = CHUNK_LOCK_PREFIX + uploadId;
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, "1", CHUNK_LOCK_MINUTES, TimeUnit.MINUTES))) {
+            throw new IllegalArgumentException("文件正在合并，请稍后查询");
+        }
+        
+        try {
+            String objectKey = "files/" + session.getFileName();
+            storageBackend.completeMultipartUpload(objectKey, session.getStorageUploadId(), parts);
+            
+            // 存储中的分片上传已经结束，之后失败无法用同一上传重试：删除合并后的文件和会话，由客户端重新上传
+            SysFile sysFile;
+            try {
+                sysFile = registerChunkUpload(objectKey, session, userId);
+            } catch (RuntimeException e) {
+                deleteQuietly(objectKey);
+                deleteChunkSession(uploadId, session);
+                throw e;
+            }
+            
+            // 先记录完成标记再删除会话，重试时返回同一个文件
+            try {
+                redisTemplate.opsForValue().set(CHUNK_DONE_PREFIX + uploadId, String.valueOf(sysFile.getId()),
+                        fileStorageConfig.getChunkUploadExpireHours(), TimeUnit.HOURS);
+            } catch (Exception e) {
+                log.warn("记录分片上传完成标记失败: uploadId={}, error={}", uploadId, e.getMessage());
+            }
+            pageCountService.evict(CountScope.FILE);
+            deleteChunkSession(uploadId, session);
+            
+            log.info("分片上传完成: uploadId={}, originalName={}, fileName={}, fileUrl={}",
+                    uploadId, sysFile.getOriginalName(), sysFile.getFileName(), sysFile.getFileUrl());
+            return sysFile;
         } finally {
-            ResourceUtil.shutdownQuietly(ossClient);
+            redisTemplate.delete(lockKey);
+        }
+    }
+    
+    /**
+     * 校验合并后的文件并登记
+     */
+    private SysFile registerChunkUpload(String objectKey, ChunkUploadSession session, Long userId) {
+        StorageBackend.StoredObject stored = storageBackend.stat(objectKey);
+        if (stored == null || stored.getSize() != session.getFileSize()) {
+            throw new IllegalArgumentException("合并后的文件大小与申请时不一致，请重新上传");
         }
+        
+        SysFile sysFile = new SysFile();
+        sysFile.setResourceId(session.getResourceId());
+        sysFile.setOriginalName(session.getOriginalName());
+        sysFile.setFileName(session.getFileName());
+        sysFile.setFileUrl(storageBackend.getUrl(objectKey));
+        sysFile.setFileSize(stored.getSize());
+        sysFile.setFileType(session.getContentType());
+        sysFile.setContentHash(stored.getContentHash());
+        sysFile.setCreateUser(userId);
+        sysFile.setUpdateUser(userId);
+        sysFile.setCreateTime(LocalDateTime.now());
+        sysFile.setUpdateTime(LocalDateTime.now());
+        
+        sysFileMapper.insert(sysFile);
+        return sysFile;
+    }
+    
+    /**
+     * 查询已完成的分片上传登记的文件，未完成或不属于该用户时返回 null
+     */
+    private SysFile getCompletedChunkUpload(String uploadId, Long userId) {
+        if (!StringUtils.hasText(uploadId)) {
+            return null;
+        }
+        String fileId = redisTemplate.opsForValue().get(CHUNK_DONE_PREFIX + uploadId);
+        if (fileId == null) {
+            return null;
+        }
+        SysFile sysFile = sysFileMapper.selectById(Long.parseLong(fileId));
+        return sysFile != null && userId.equals(sysFile.getCreateUser()) ? sysFile : null;
+    }
+    
+    @Override
+    public void abortChunkUpload(String uploadId, Long userId) {
+        ChunkUploadSession session = getChunkSession(uploadId, userId);
+        try {
+            storageBackend.abortMultipartUpload("files/" + session.getFileName(), session.getStorageUploadId());
+        } catch (Exception e) {
+            log.warn("取消分片上传失败: uploadId={}, error={}", uploadId, e.getMessage());
+        }
+        deleteChunkSession(uploadId, session);
+        log.info("分片上传已取消: uploadId={}", uploadId);
     }
     
     @Override
@@ -231,7 +521,165 @@ public class FileServiceImpl implements FileService {
         // 按创建时间倒序
         wrapper.orderByDesc(SysFile::getCreateTime);
         
-        return sysFileMapper.selectPage(page, wrapper);
+        String signature = "keyword=" + keyword + "&resource=" + resourceId;
+        return pageCountService.selectPage(sysFileMapper, page, wrapper, CountScope.FILE, signature);
+    }
+    
+    /**
+     * 使用雪花算法生成唯一文件名，保留原扩展名
+     */
+    private String generateFileName(String originalFilename) {
+        String extension = "";
+        int lastDotIndex = originalFilename.lastIndexOf('.');
+        if (lastDotIndex > 0) {
+            extension = originalFilename.substring(lastDotIndex);
+        }
+        return idGenerator.nextId() + extension;
+    }
+    
+    private UploadTicket readUploadTicket(String key) {
+        String json = redisTemplate.opsForValue().get(key);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, UploadTicket.class);
+        } catch (JsonProcessingException e) {
+            log.warn("解析上传凭证失败: key={}, error={}", key, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 定时删除凭证已过期但没有登记的直传文件（上传后未调用完成接口）
+     * 多个节点同时执行时，通过 ZREM 的返回值保证每个文件只由一个节点处理
+     */
+    @Scheduled(fixedDelay = 60 * 60 * 1000, initialDelay = 10 * 60 * 1000)
+    public void cleanExpiredDirectUploads() {
+        try {
+            Set<String> fileNames = redisTemplate.opsForZSet()
+                    .rangeByScore(PENDING_UPLOAD_KEY, 0, System.currentTimeMillis(), 0, PENDING_CLEAN_BATCH);
+            if (fileNames == null) {
+                return;
+            }
+            for (String fileName : fileNames) {
+                Long removed = redisTemplate.opsForZSet().remove(PENDING_UPLOAD_KEY, fileName);
+                if (removed == null || removed == 0) {
+                    continue;
+                }
+                LambdaQueryWrapper<SysFile> wrapper = new LambdaQueryWrapper<>();
+                wrapper.eq(SysFile::getFileName, fileName);
+                if (sysFileMapper.selectCount(wrapper) == 0) {
+                    deleteQuietly("files/" + fileName);
+                    log.info("已删除未登记的直传文件: fileName={}", fileName);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("清理未登记的直传文件失败: {}", e.getMessage());
+        }
+    }
+    
+    private void deleteQuietly(String objectKey) {
+        try {
+            storageBackend.delete(objectKey);
+        } catch (Exception e) {
+            log.warn("删除文件失败: objectKey={}, error={}", objectKey, e.getMessage());
+        }
+    }
+    
+    /**
+     * 读取分片上传信息并校验上传人
+     */
+    private ChunkUploadSession getChunkSession(String uploadId, Long userId) {
+        if (!StringUtils.hasText(uploadId)) {
+            throw new IllegalArgumentException("上传ID不能为空");
+        }
+        ChunkUploadSession session = readChunkSession(uploadId);
+        if (session == null || !session.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("分片上传不存在或已过期");
+        }
+        return session;
+    }
+    
+    private ChunkUploadSession readChunkSession(String uploadId) {
+        String json = redisTemplate.opsForValue().get(CHUNK_SESSION_PREFIX + uploadId);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, ChunkUploadSession.class);
+        } catch (JsonProcessingException e) {
+            log.warn("解析分片上传信息失败: uploadId={}, error={}", uploadId, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 已接收的分片：分片序号 -> 分片标识
+     */
+    private Map<Integer, String> getUploadedParts(String uploadId) {
+        Map<Integer, String> parts = new TreeMap<>();
+        redisTemplate.opsForHash().entries(CHUNK_PARTS_PREFIX + uploadId)
+                .forEach((partNumber, partTag) -> parts.put(Integer.parseInt(String.valueOf(partNumber)), String.valueOf(partTag)));
+        return parts;
+    }
+    
+    private Map<String, Object> buildChunkStatus(String uploadId, ChunkUploadSession session) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("uploadId", uploadId);
+        result.put("fileName", session.getOriginalName());
+        result.put("fileSize", session.getFileSize());
+        result.put("chunkSize", session.getChunkSize());
+        result.put("totalChunks", session.getTotalChunks());
+        result.put("uploadedChunks", new ArrayList<>(getUploadedParts(uploadId).keySet()));
+        return result;
+    }
+    
+    private void deleteChunkSession(String uploadId, ChunkUploadSession session) {
+        List<String> keys = new ArrayList<>();
+        keys.add(CHUNK_SESSION_PREFIX + uploadId);
+        keys.add(CHUNK_PARTS_PREFIX + uploadId);
+        if (session.getResumeKey() != null) {
+            keys.add(session.getResumeKey());
+        }
+        redisTemplate.delete(keys);
+    }
+    
+    /**
+     * 分片上传信息
+     */
+    @Data
+    public static class ChunkUploadSession {
+        private String fileName;
+        private String originalName;
+        private Long fileSize;
+        private String contentType;
+        private Long resourceId;
+        private Long userId;
+        private Long chunkSize;
+        private Integer totalChunks;
+        
+        /**
+         * 存储分配的分片上传ID
+         */
+        private String storageUploadId;
+        
+        /**
+         * 断点续传索引 key，未提供文件MD5时为 null
+         */
+        private String resumeKey;
+    }
+    
+    /**
+     * 直传上传凭证
+     */
+    @Data
+    public static class UploadTicket {
+        private String fileName;
+        private String originalName;
+        private Long fileSize;
+        private String contentType;
+        private Long resourceId;
+        private Long userId;
     }
 }
-
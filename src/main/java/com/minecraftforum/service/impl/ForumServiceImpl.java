@@ -2,14 +2,22 @@ package com.minecraftforum.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.minecraftforum.dto.CommentDTO;
+import com.minecraftforum.dto.CursorPage;
 import com.minecraftforum.dto.ForumPostDTO;
 import com.minecraftforum.dto.ReplyDTO;
 import com.minecraftforum.entity.*;
 import com.minecraftforum.mapper.*;
 import com.minecraftforum.config.custom.annotations.IndexToElasticsearch;
+import com.minecraftforum.service.EngagementCacheService;
+import com.minecraftforum.service.EngagementCacheService.EngagementType;
 import com.minecraftforum.service.ForumService;
+import com.minecraftforum.service.PageCountService;
+import com.minecraftforum.service.PageCountService.CountScope;
+import com.minecraftforum.service.PostViewCountService;
+import com.minecraftforum.util.FeedCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,24 +25,132 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ForumServiceImpl implements ForumService {
     
+    /**
+     * 单次分页加载回复的最大条数
+     */
+    private static final int MAX_REPLY_PAGE_SIZE = 100;
+    
+    /**
+     * 游标分页的默认和最大每页条数
+     */
+    private static final int DEFAULT_FEED_PAGE_SIZE = 10;
+    private static final int MAX_FEED_PAGE_SIZE = 50;
+    
     private final ForumPostMapper postMapper;
     private final CommentMapper commentMapper;
     private final ForumReplyMapper replyMapper;
     private final LikeMapper likeMapper;
     private final UserMapper userMapper;
     private final com.minecraftforum.util.SecurityUtil securityUtil;
+    private final PostViewCountService postViewCountService;
+    private final EngagementCacheService engagementCacheService;
+    private final PageCountService pageCountService;
     
     @Override
     public IPage<ForumPostDTO> getPostList(Page<ForumPost> page, String category, String keyword, String authorKeyword, String sortBy) {
+        LambdaQueryWrapper<ForumPost> wrapper = buildPostQuery(category, keyword, authorKeyword);
+        
+        // 排序
+        if (StringUtils.hasText(sortBy)) {
+            switch (sortBy) {
+                case "viewCount":
+                    wrapper.orderByDesc(ForumPost::getViewCount);
+                    break;
+                case "likeCount":
+                    wrapper.orderByDesc(ForumPost::getLikeCount);
+                    break;
+                case "createTime":
+                default:
+                    wrapper.orderByDesc(ForumPost::getCreateTime);
+                    break;
+            }
+        } else {
+            wrapper.orderByDesc(ForumPost::getCreateTime);
+        }
+        
+        IPage<ForumPost> postPage;
+        if (!StringUtils.hasText(keyword) && !StringUtils.hasText(authorKeyword)) {
+            // 只按分类筛选时总数取自分类计数器
+            long total = pageCountService.getCategoryCount(CountScope.POST,
+                    StringUtils.hasText(category) ? List.of(category) : null);
+            postPage = pageCountService.selectPage(postMapper, page, wrapper, total);
+        } else {
+            String signature = "category=" + category + "&keyword=" + keyword + "&author=" + authorKeyword;
+            postPage = pageCountService.selectPage(postMapper, page, wrapper, CountScope.POST, signature);
+        }
+        
+        // 转换为DTO并批量填充作者信息和点赞状态
+        Long currentUserId = securityUtil.getCurrentUserId();
+        IPage<ForumPostDTO> dtoPage = new Page<>(postPage.getCurrent(), postPage.getSize(), postPage.getTotal());
+        dtoPage.setRecords(convertToDTOList(postPage.getRecords(), currentUserId));
+        
+        return dtoPage;
+    }
+    
+    @Override
+    public CursorPage<ForumPostDTO> getPostFeed(String cursor, Integer pageSize, String category, String keyword, String authorKeyword, String sortBy) {
+        LambdaQueryWrapper<ForumPost> wrapper = buildPostQuery(category, keyword, authorKeyword);
+        
+        FeedCursor feedCursor = FeedCursor.decode(cursor);
+        SFunction<ForumPost, ?> sortColumn;
+        Function<ForumPost, Object> sortValue;
+        Function<String, ?> valueParser;
+        String sortKey = sortBy != null ? sortBy : "createTime";
+        switch (sortKey) {
+            case "viewCount":
+                sortColumn = ForumPost::getViewCount;
+                sortValue = ForumPost::getViewCount;
+                valueParser = Integer::valueOf;
+                break;
+            case "likeCount":
+                sortColumn = ForumPost::getLikeCount;
+                sortValue = ForumPost::getLikeCount;
+                valueParser = Integer::valueOf;
+                break;
+            case "createTime":
+            default:
+                sortColumn = ForumPost::getCreateTime;
+                sortValue = ForumPost::getCreateTime;
+                valueParser = LocalDateTime::parse;
+                break;
+        }
+        FeedCursor.apply(wrapper, feedCursor, sortColumn, ForumPost::getId, valueParser);
+        
+        // 多查一条判断是否还有下一页
+        int size = Math.max(1, Math.min(pageSize != null ? pageSize : DEFAULT_FEED_PAGE_SIZE, MAX_FEED_PAGE_SIZE));
+        wrapper.last("LIMIT " + (size + 1));
+        List<ForumPost> posts = postMapper.selectList(wrapper);
+        
+        String nextCursor = null;
+        if (posts.size() > size) {
+            posts = posts.subList(0, size);
+            ForumPost last = posts.get(size - 1);
+            nextCursor = FeedCursor.encode(sortValue.apply(last), last.getId());
+        }
+        
+        Long currentUserId = securityUtil.getCurrentUserId();
+        return CursorPage.of(convertToDTOList(posts, currentUserId), nextCursor);
+    }
+    
+    /**
+     * 构建帖子列表的筛选条件（分类、关键词、作者，只包含正常状态的帖子）
+     */
+    private LambdaQueryWrapper<ForumPost> buildPostQuery(String category, String keyword, String authorKeyword) {
         LambdaQueryWrapper<ForumPost> wrapper = new LambdaQueryWrapper<>();
         
         // 分类筛选
@@ -66,36 +182,51 @@ public class ForumServiceImpl implements ForumService {
         }
         
         wrapper.eq(ForumPost::getStatus, "NORMAL");
-        
-        // 排序
-        if (StringUtils.hasText(sortBy)) {
-            switch (sortBy) {
-                case "viewCount":
-                    wrapper.orderByDesc(ForumPost::getViewCount);
-                    break;
-                case "likeCount":
-                    wrapper.orderByDesc(ForumPost::getLikeCount);
-                    break;
-                case "createTime":
-                default:
-                    wrapper.orderByDesc(ForumPost::getCreateTime);
-                    break;
-            }
-        } else {
-            wrapper.orderByDesc(ForumPost::getCreateTime);
+        return wrapper;
+    }
+    
+    /**
+     * 批量将帖子转换为DTO
+     * 整页只查询一次作者、一次点赞状态，避免逐条查询
+     */
+    private List<ForumPostDTO> convertToDTOList(List<ForumPost> posts, Long currentUserId) {
+        if (posts.isEmpty()) {
+            return new ArrayList<>();
         }
         
-        IPage<ForumPost> postPage = postMapper.selectPage(page, wrapper);
+        Map<Long, User> userMap = loadUserMap(posts.stream()
+                .map(ForumPost::getAuthorId)
+                .collect(Collectors.toSet()));
         
-        // 转换为DTO并填充作者信息
-        Long currentUserId = securityUtil.getCurrentUserId();
-        IPage<ForumPostDTO> dtoPage = new Page<>(postPage.getCurrent(), postPage.getSize(), postPage.getTotal());
-        List<ForumPostDTO> dtoList = postPage.getRecords().stream()
-                .map(post -> convertToDTO(post, currentUserId))
-                .collect(Collectors.toList());
-        dtoPage.setRecords(dtoList);
+        List<Long> postIds = posts.stream().map(ForumPost::getId).collect(Collectors.toList());
+        Set<Long> likedPostIds = engagementCacheService.filterEngaged(currentUserId, EngagementType.POST_LIKE, postIds);
         
-        return dtoPage;
+        List<ForumPostDTO> dtoList = new ArrayList<>(posts.size());
+        for (ForumPost post : posts) {
+            ForumPostDTO dto = buildPostDTO(post, userMap.get(post.getAuthorId()));
+            dto.setIsLiked(likedPostIds.contains(post.getId()));
+            dtoList.add(dto);
+        }
+        return dtoList;
+    }
+    
+    /**
+     * 根据用户ID批量加载用户，返回 ID -> 用户 的映射
+     */
+    private Map<Long, User> loadUserMap(Collection<Long> userIds) {
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return userMapper.selectBatchIds(ids).stream()
+                .collect(Collectors.toMap(User::getId, user -> user, (a, b) -> a));
+    }
+    
+    /**
+     * 获取用户展示名称（优先昵称）
+     */
+    private String getDisplayName(User user) {
+        return user.getNickname() != null ? user.getNickname() : user.getUsername();
     }
     
     /**
@@ -109,36 +240,39 @@ public class ForumServiceImpl implements ForumService {
      * 将ForumPost实体转换为ForumPostDTO，并填充作者信息和点赞状态
      */
     private ForumPostDTO convertToDTO(ForumPost post, Long currentUserId) {
+        ForumPostDTO dto = buildPostDTO(post, userMapper.selectById(post.getAuthorId()));
+        
+        // 如果用户已登录，检查是否已点赞
+        dto.setIsLiked(engagementCacheService.isEngaged(currentUserId, EngagementType.POST_LIKE, post.getId()));
+        
+        return dto;
+    }
+    
+    /**
+     * 复制帖子字段并填充已加载的作者信息
+     */
+    private ForumPostDTO buildPostDTO(ForumPost post, User author) {
         ForumPostDTO dto = new ForumPostDTO();
         dto.setId(post.getId());
         dto.setTitle(post.getTitle());
         dto.setContent(post.getContent());
         dto.setCategory(post.getCategory());
         dto.setAuthorId(post.getAuthorId());
-        dto.setViewCount(post.getViewCount());
+        // 合并尚未回写数据库的浏览量
+        long pendingViews = postViewCountService.getPendingViews(post.getId());
+        int viewCount = post.getViewCount() != null ? post.getViewCount() : 0;
+        dto.setViewCount((int) (viewCount + pendingViews));
         dto.setLikeCount(post.getLikeCount());
         dto.setCommentCount(post.getCommentCount());
         dto.setStatus(post.getStatus());
         dto.setCreateTime(post.getCreateTime());
         dto.setUpdateTime(post.getUpdateTime());
         
-        // 查询作者信息
-        User author = userMapper.selectById(post.getAuthorId());
         if (author != null) {
-            dto.setAuthorName(author.getNickname() != null ? author.getNickname() : author.getUsername());
+            dto.setAuthorName(getDisplayName(author));
             dto.setAuthorAvatar(author.getAvatar());
         }
         
-        // 如果用户已登录，检查是否已点赞
-        if (currentUserId != null) {
-            LambdaQueryWrapper<Like> likeWrapper = new LambdaQueryWrapper<>();
-            likeWrapper.eq(Like::getPostId, post.getId());
-            likeWrapper.eq(Like::getUserId, currentUserId);
-            dto.setIsLiked(likeMapper.selectOne(likeWrapper) != null);
-        } else {
-            dto.setIsLiked(false);
-        }
-        
         return dto;
     }
     
@@ -164,6 +298,7 @@ public class ForumServiceImpl implements ForumService {
         post.setCreateTime(LocalDateTime.now());
         post.setUpdateTime(LocalDateTime.now());
         postMapper.insert(post);
+        pageCountService.onCreated(CountScope.POST, post.getCategory());
         return post;
     }
     
@@ -172,6 +307,7 @@ public class ForumServiceImpl implements ForumService {
     public ForumPost updatePost(ForumPost post) {
         post.setUpdateTime(LocalDateTime.now());
         postMapper.updateById(post);
+        pageCountService.evict(CountScope.POST);
         return post;
     }
     
@@ -198,28 +334,24 @@ public class ForumServiceImpl implements ForumService {
             
             // 删除所有评论
             commentMapper.delete(commentWrapper);
+            
+            pageCountService.evict(CountScope.POST);
+            pageCountService.evict(CountScope.COMMENT);
         }
     }
     
     @Override
     @Transactional
     public void likePost(Long postId, Long userId) {
-        LambdaQueryWrapper<Like> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Like::getPostId, postId);
-        wrapper.eq(Like::getUserId, userId);
-        
-        if (likeMapper.selectOne(wrapper) == null) {
-            Like like = new Like();
-            like.setUserId(userId);
-            like.setPostId(postId);
-            like.setCreateTime(LocalDateTime.now());
-            likeMapper.insert(like);
-            
-            ForumPost post = postMapper.selectById(postId);
-            if (post != null) {
-                post.setLikeCount(post.getLikeCount() + 1);
-                postMapper.updateById(post);
-            }
+        Like like = new Like();
+        like.setUserId(userId);
+        like.setPostId(postId);
+        like.setCreateTime(LocalDateTime.now());
+        
+        // 唯一索引保证幂等，只有真正新增点赞时才累加计数
+        if (likeMapper.insertIgnore(like) > 0) {
+            postMapper.incrementLikeCount(postId, 1);
+            engagementCacheService.onEngaged(userId, EngagementType.POST_LIKE, postId);
         }
     }
     
@@ -230,26 +362,17 @@ public class ForumServiceImpl implements ForumService {
         wrapper.eq(Like::getPostId, postId);
         wrapper.eq(Like::getUserId, userId);
         
-        Like existingLike = likeMapper.selectOne(wrapper);
-        if (existingLike != null) {
-            likeMapper.delete(wrapper);
-            
-            ForumPost post = postMapper.selectById(postId);
-            if (post != null) {
-                post.setLikeCount(Math.max(0, post.getLikeCount() - 1));
-                postMapper.updateById(post);
-            }
+        int deleted = likeMapper.delete(wrapper);
+        if (deleted > 0) {
+            postMapper.incrementLikeCount(postId, -deleted);
+            engagementCacheService.onDisengaged(userId, EngagementType.POST_LIKE, postId);
         }
     }
     
     @Override
-    @Transactional
     public void viewPost(Long postId) {
-        ForumPost post = postMapper.selectById(postId);
-        if (post != null) {
-            post.setViewCount(post.getViewCount() + 1);
-            postMapper.updateById(post);
-        }
+        // 浏览量写入内存计数器，由 PostViewCountService 定时批量回写
+        postViewCountService.recordView(postId);
     }
     
     @Override
@@ -263,11 +386,8 @@ public class ForumServiceImpl implements ForumService {
         comment.setCreateTime(LocalDateTime.now());
         commentMapper.insert(comment);
         
-        ForumPost post = postMapper.selectById(postId);
-        if (post != null) {
-            post.setCommentCount(post.getCommentCount() + 1);
-            postMapper.updateById(post);
-        }
+        postMapper.incrementCommentCount(postId, 1);
+        pageCountService.evict(CountScope.COMMENT);
         
         return comment;
     }
@@ -280,12 +400,9 @@ public class ForumServiceImpl implements ForumService {
             // 级联删除该评论的所有回复（包括嵌套回复）
             deleteRepliesByCommentId(commentId);
             
-            ForumPost post = postMapper.selectById(comment.getResourceId());
-            if (post != null) {
-                post.setCommentCount(Math.max(0, post.getCommentCount() - 1));
-                postMapper.updateById(post);
-            }
+            postMapper.incrementCommentCount(comment.getResourceId(), -1);
             commentMapper.deleteById(commentId);
+            pageCountService.evict(CountScope.COMMENT);
         }
     }
     
@@ -351,44 +468,28 @@ public class ForumServiceImpl implements ForumService {
     @Override
     @Transactional
     public void likeComment(Long commentId, Long userId) {
-        LambdaQueryWrapper<Like> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Like::getCommentId, commentId);
-        wrapper.eq(Like::getUserId, userId);
-        
-        if (likeMapper.selectOne(wrapper) == null) {
-            Like like = new Like();
-            like.setUserId(userId);
-            like.setCommentId(commentId);
-            like.setCreateTime(LocalDateTime.now());
-            likeMapper.insert(like);
-            
-            Comment comment = commentMapper.selectById(commentId);
-            if (comment != null) {
-                comment.setLikeCount(comment.getLikeCount() + 1);
-                commentMapper.updateById(comment);
-            }
+        Like like = new Like();
+        like.setUserId(userId);
+        like.setCommentId(commentId);
+        like.setCreateTime(LocalDateTime.now());
+        
+        if (likeMapper.insertIgnore(like) > 0) {
+            commentMapper.incrementLikeCount(commentId, 1);
+            engagementCacheService.onEngaged(userId, EngagementType.COMMENT_LIKE, commentId);
         }
     }
     
     @Override
     @Transactional
     public void likeReply(Long replyId, Long userId) {
-        LambdaQueryWrapper<Like> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Like::getReplyId, replyId);
-        wrapper.eq(Like::getUserId, userId);
-        
-        if (likeMapper.selectOne(wrapper) == null) {
-            Like like = new Like();
-            like.setUserId(userId);
-            like.setReplyId(replyId);
-            like.setCreateTime(LocalDateTime.now());
-            likeMapper.insert(like);
-            
-            ForumReply reply = replyMapper.selectById(replyId);
-            if (reply != null) {
-                reply.setLikeCount(reply.getLikeCount() + 1);
-                replyMapper.updateById(reply);
-            }
+        Like like = new Like();
+        like.setUserId(userId);
+        like.setReplyId(replyId);
+        like.setCreateTime(LocalDateTime.now());
+        
+        if (likeMapper.insertIgnore(like) > 0) {
+            replyMapper.incrementLikeCount(replyId, 1);
+            engagementCacheService.onEngaged(userId, EngagementType.REPLY_LIKE, replyId);
         }
     }
     
@@ -399,15 +500,10 @@ public class ForumServiceImpl implements ForumService {
         wrapper.eq(Like::getCommentId, commentId);
         wrapper.eq(Like::getUserId, userId);
         
-        Like existingLike = likeMapper.selectOne(wrapper);
-        if (existingLike != null) {
-            likeMapper.delete(wrapper);
-            
-            Comment comment = commentMapper.selectById(commentId);
-            if (comment != null) {
-                comment.setLikeCount(Math.max(0, comment.getLikeCount() - 1));
-                commentMapper.updateById(comment);
-            }
+        int deleted = likeMapper.delete(wrapper);
+        if (deleted > 0) {
+            commentMapper.incrementLikeCount(commentId, -deleted);
+            engagementCacheService.onDisengaged(userId, EngagementType.COMMENT_LIKE, commentId);
         }
     }
     
@@ -418,15 +514,10 @@ public class ForumServiceImpl implements ForumService {
         wrapper.eq(Like::getReplyId, replyId);
         wrapper.eq(Like::getUserId, userId);
         
-        Like existingLike = likeMapper.selectOne(wrapper);
-        if (existingLike != null) {
-            likeMapper.delete(wrapper);
-            
-            ForumReply reply = replyMapper.selectById(replyId);
-            if (reply != null) {
-                reply.setLikeCount(Math.max(0, reply.getLikeCount() - 1));
-                replyMapper.updateById(reply);
-            }
+        int deleted = likeMapper.delete(wrapper);
+        if (deleted > 0) {
+            replyMapper.incrementLikeCount(replyId, -deleted);
+            engagementCacheService.onDisengaged(userId, EngagementType.REPLY_LIKE, replyId);
         }
     }
     
@@ -437,14 +528,12 @@ public class ForumServiceImpl implements ForumService {
         wrapper.eq(Comment::getResourceId, postId);
         wrapper.orderByDesc(Comment::getCreateTime);
         
-        IPage<Comment> commentIPage = commentMapper.selectPage(commentPage, wrapper);
+        IPage<Comment> commentIPage = pageCountService.selectPage(commentMapper, commentPage, wrapper,
+                CountScope.COMMENT, "post=" + postId);
         
         Long currentUserId = securityUtil.getCurrentUserId();
         IPage<CommentDTO> dtoPage = new Page<>(commentIPage.getCurrent(), commentIPage.getSize(), commentIPage.getTotal());
-        List<CommentDTO> dtoList = commentIPage.getRecords().stream()
-                .map(comment -> convertCommentToDTO(comment, currentUserId))
-                .collect(Collectors.toList());
-        dtoPage.setRecords(dtoList);
+        dtoPage.setRecords(convertCommentsToDTOList(commentIPage.getRecords(), currentUserId));
         
         return dtoPage;
     }
@@ -458,130 +547,138 @@ public class ForumServiceImpl implements ForumService {
         List<Comment> comments = commentMapper.selectList(wrapper);
         Long currentUserId = securityUtil.getCurrentUserId();
         
-        return comments.stream()
-                .map(comment -> convertCommentToDTO(comment, currentUserId))
-                .collect(Collectors.toList());
+        return convertCommentsToDTOList(comments, currentUserId);
     }
     
     @Override
     public List<ReplyDTO> getRepliesByCommentId(Long commentId) {
+        return getRepliesByCommentId(commentId, null, null);
+    }
+    
+    @Override
+    public List<ReplyDTO> getRepliesByCommentId(Long commentId, Long cursor, Integer limit) {
         Long currentUserId = securityUtil.getCurrentUserId();
-        return buildReplyTree(commentId, currentUserId);
+        return buildReplyTree(commentId, cursor, limit, currentUserId);
     }
     
     /**
-     * 将Comment实体转换为CommentDTO，并填充回复树形结构
+     * 批量将评论转换为DTO
+     * 作者、点赞状态、回复数量各用一次查询完成，查询次数与评论数量无关
      */
-    private CommentDTO convertCommentToDTO(Comment comment, Long currentUserId) {
-        CommentDTO dto = new CommentDTO();
-        dto.setId(comment.getId());
-        dto.setPostId(comment.getResourceId());
-        dto.setAuthorId(comment.getAuthorId());
-        dto.setContent(comment.getContent());
-        dto.setLikeCount(comment.getLikeCount());
-        dto.setCreateTime(comment.getCreateTime());
-        
-        // 查询作者信息
-        User author = userMapper.selectById(comment.getAuthorId());
-        if (author != null) {
-            dto.setAuthorName(author.getNickname() != null ? author.getNickname() : author.getUsername());
-            dto.setAuthorAvatar(author.getAvatar());
+    private List<CommentDTO> convertCommentsToDTOList(List<Comment> comments, Long currentUserId) {
+        if (comments.isEmpty()) {
+            return new ArrayList<>();
         }
         
-        // 检查是否已点赞
-        if (currentUserId != null) {
-            LambdaQueryWrapper<Like> likeWrapper = new LambdaQueryWrapper<>();
-            likeWrapper.eq(Like::getCommentId, comment.getId());
-            likeWrapper.eq(Like::getUserId, currentUserId);
-            dto.setIsLiked(likeMapper.selectOne(likeWrapper) != null);
-        } else {
-            dto.setIsLiked(false);
-        }
+        List<Long> commentIds = comments.stream().map(Comment::getId).collect(Collectors.toList());
+        Map<Long, User> userMap = loadUserMap(comments.stream()
+                .map(Comment::getAuthorId)
+                .collect(Collectors.toSet()));
         
-        // 只计算回复数量，不加载子评论（子评论在展开时单独加载）
-        LambdaQueryWrapper<ForumReply> replyCountWrapper = new LambdaQueryWrapper<>();
-        replyCountWrapper.eq(ForumReply::getCommentId, comment.getId());
-        replyCountWrapper.isNull(ForumReply::getParentId); // 只统计直接回复评论的回复
-        Long replyCount = replyMapper.selectCount(replyCountWrapper);
-        dto.setReplyCount(replyCount != null ? replyCount.intValue() : 0);
+        // 当前用户点赞过的评论
+        Set<Long> likedCommentIds = engagementCacheService.filterEngaged(currentUserId, EngagementType.COMMENT_LIKE, commentIds);
         
-        // 不设置 replies，让前端在展开时单独加载
-        dto.setReplies(null);
+        // 只统计直接回复评论的回复数量，不加载子评论（子评论在展开时单独加载）
+        Map<Long, Integer> replyCountMap = new HashMap<>();
+        for (Map<String, Object> row : replyMapper.countRepliesByCommentIds(commentIds)) {
+            Long commentId = ((Number) row.get("commentId")).longValue();
+            replyCountMap.put(commentId, ((Number) row.get("replyCount")).intValue());
+        }
         
-        return dto;
+        List<CommentDTO> dtoList = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            CommentDTO dto = new CommentDTO();
+            dto.setId(comment.getId());
+            dto.setPostId(comment.getResourceId());
+            dto.setAuthorId(comment.getAuthorId());
+            dto.setContent(comment.getContent());
+            dto.setLikeCount(comment.getLikeCount());
+            dto.setCreateTime(comment.getCreateTime());
+            
+            User author = userMap.get(comment.getAuthorId());
+            if (author != null) {
+                dto.setAuthorName(getDisplayName(author));
+                dto.setAuthorAvatar(author.getAvatar());
+            }
+            
+            dto.setIsLiked(likedCommentIds.contains(comment.getId()));
+            dto.setReplyCount(replyCountMap.getOrDefault(comment.getId(), 0));
+            
+            // 不设置 replies，让前端在展开时单独加载
+            dto.setReplies(null);
+            dtoList.add(dto);
+        }
+        return dtoList;
     }
     
     /**
      * 构建回复的扁平结构（所有回复都是根评论的直接子回复，只支持两层）
+     * 传入 limit 时按回复ID游标分页，cursor 为上一页最后一条回复的ID
      */
-    private List<ReplyDTO> buildReplyTree(Long commentId, Long currentUserId) {
-        // 查询该评论的所有回复（只返回 parentId 为 null 的回复，即直接回复评论的回复）
+    private List<ReplyDTO> buildReplyTree(Long commentId, Long cursor, Integer limit, Long currentUserId) {
+        // 查询该评论的回复（只返回 parentId 为 null 的回复，即直接回复评论的回复）
         LambdaQueryWrapper<ForumReply> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(ForumReply::getCommentId, commentId);
         wrapper.isNull(ForumReply::getParentId); // 只获取直接回复评论的回复
-        wrapper.orderByAsc(ForumReply::getCreateTime);
-        List<ForumReply> allReplies = replyMapper.selectList(wrapper);
+        if (limit != null) {
+            // 回复ID自增，与创建时间顺序一致，可直接作为游标
+            wrapper.gt(cursor != null, ForumReply::getId, cursor);
+            wrapper.orderByAsc(ForumReply::getId);
+            wrapper.last("LIMIT " + Math.max(1, Math.min(limit, MAX_REPLY_PAGE_SIZE)));
+        } else {
+            wrapper.orderByAsc(ForumReply::getCreateTime);
+        }
+        List<ForumReply> replies = replyMapper.selectList(wrapper);
         
-        if (allReplies.isEmpty()) {
+        if (replies.isEmpty()) {
             return new ArrayList<>();
         }
         
-        // 将所有回复转换为DTO（扁平结构，不嵌套）
-        List<ReplyDTO> replyList = new ArrayList<>();
-        for (ForumReply reply : allReplies) {
-            ReplyDTO replyDTO = convertReplyToDTO(reply, currentUserId);
-            replyList.add(replyDTO);
+        // 作者与被回复用户合并后一次查询
+        Set<Long> userIds = new HashSet<>();
+        for (ForumReply reply : replies) {
+            userIds.add(reply.getAuthorId());
+            if (reply.getTargetUserId() != null) {
+                userIds.add(reply.getTargetUserId());
+            }
         }
+        Map<Long, User> userMap = loadUserMap(userIds);
         
-        return replyList;
-    }
-    
-    /**
-     * 将ForumReply实体转换为ReplyDTO
-     */
-    private ReplyDTO convertReplyToDTO(ForumReply reply, Long currentUserId) {
-        ReplyDTO dto = new ReplyDTO();
-        dto.setId(reply.getId());
-        dto.setCommentId(reply.getCommentId());
-        dto.setParentId(reply.getParentId());
-        dto.setAuthorId(reply.getAuthorId());
-        dto.setTargetUserId(reply.getTargetUserId());
-        dto.setContent(reply.getContent());
-        dto.setLikeCount(reply.getLikeCount());
-        dto.setCreateTime(reply.getCreateTime());
-        
-        // 查询作者信息
-        User author = userMapper.selectById(reply.getAuthorId());
-        if (author != null) {
-            dto.setAuthorName(author.getNickname() != null ? author.getNickname() : author.getUsername());
-            dto.setAuthorAvatar(author.getAvatar());
-        }
+        // 当前用户点赞过的回复
+        List<Long> replyIds = replies.stream().map(ForumReply::getId).collect(Collectors.toList());
+        Set<Long> likedReplyIds = engagementCacheService.filterEngaged(currentUserId, EngagementType.REPLY_LIKE, replyIds);
         
-        // 查询被回复用户信息
-        if (reply.getTargetUserId() != null) {
-            User targetUser = userMapper.selectById(reply.getTargetUserId());
-            if (targetUser != null) {
-                dto.setTargetUserName(targetUser.getNickname() != null ? targetUser.getNickname() : targetUser.getUsername());
+        // 将所有回复转换为DTO（扁平结构，不嵌套）
+        List<ReplyDTO> replyList = new ArrayList<>(replies.size());
+        for (ForumReply reply : replies) {
+            ReplyDTO dto = new ReplyDTO();
+            dto.setId(reply.getId());
+            dto.setCommentId(reply.getCommentId());
+            dto.setParentId(reply.getParentId());
+            dto.setAuthorId(reply.getAuthorId());
+            dto.setTargetUserId(reply.getTargetUserId());
+            dto.setContent(reply.getContent());
+            dto.setLikeCount(reply.getLikeCount());
+            dto.setCreateTime(reply.getCreateTime());
+            
+            User author = userMap.get(reply.getAuthorId());
+            if (author != null) {
+                dto.setAuthorName(getDisplayName(author));
+                dto.setAuthorAvatar(author.getAvatar());
             }
+            
+            if (reply.getTargetUserId() != null) {
+                User targetUser = userMap.get(reply.getTargetUserId());
+                if (targetUser != null) {
+                    dto.setTargetUserName(getDisplayName(targetUser));
+                }
+            }
+            
+            dto.setIsLiked(likedReplyIds.contains(reply.getId()));
+            dto.setChildren(new ArrayList<>());
+            replyList.add(dto);
         }
         
-        // 检查是否已点赞
-        if (currentUserId != null) {
-            LambdaQueryWrapper<Like> likeWrapper = new LambdaQueryWrapper<>();
-            likeWrapper.eq(Like::getReplyId, reply.getId());
-            likeWrapper.eq(Like::getUserId, currentUserId);
-            dto.setIsLiked(likeMapper.selectOne(likeWrapper) != null);
-        } else {
-            dto.setIsLiked(false);
-        }
-        
-        dto.setChildren(new ArrayList<>());
-        
-        return dto;
+        return replyList;
     }
 }
-
-
-
-
-
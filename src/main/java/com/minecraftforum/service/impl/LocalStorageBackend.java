@@ -0,0 +1,515 @@
+package com.minecraftforum.service.impl;
+
+import com.minecraftforum.config.FileStorageConfig;
+import com.minecraftforum.service.StorageBackend;
+import com.minecraftforum.util.ResourceUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.security.DigestInputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * 本地磁盘存储后端（file.storage-type=local）
+ * 文件保存在 file.upload-path 目录下，通过 file.access-path 访问（由 LocalFileAccessController 处理）；
+ * 上传时经 FileChannel 分段写入存储目录之外的临时文件后原子改名，不在内存中缓存整个文件；
+ * 下载时返回本地路径，由控制器交给容器以 sendfile 零拷贝发送；
+ * 直传地址指向 LocalStorageController，使用 HmacSHA256 签名和过期时间校验；
+ * 分片上传时每个分片单独保存在 file.chunk-temp-path 下，完成时按序号合并；
+ * 写入和合并时同时计算内容MD5，保存在文件的扩展属性中，文件系统不支持扩展属性时不保存
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "file", name = "storage-type", havingValue = FileStorageConfig.STORAGE_TYPE_LOCAL)
+@RequiredArgsConstructor
+public class LocalStorageBackend implements StorageBackend {
+    
+    private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024; // 每次写入的最大字节数：8MB
+    private static final int MERGE_BUFFER_SIZE = 1024 * 1024; // 合并分片的缓冲区大小：1MB
+    private static final String DIRECT_PATH = "/api/files/direct"; // 直传地址，由 LocalStorageController 处理
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    private static final String PART_SUFFIX = ".part";
+    private static final String PLACEHOLDER_SECRET_MARK = "please-change-this"; // 示例密钥的标记
+    private static final String HASH_ATTRIBUTE = "content-md5"; // 保存内容MD5的扩展属性（Linux 下为 user.content-md5）
+    
+    private final FileStorageConfig fileStorageConfig;
+    
+    private Path root;
+    
+    /**
+     * 上传临时目录，与存储目录同级（同一文件系统才能原子改名），写了一半的文件不能被访问
+     */
+    private Path tempRoot;
+    
+    /**
+     * 分片上传临时目录，每个分片上传一个子目录
+     */
+    private Path chunkRoot;
+    
+    /**
+     * 直传地址签名密钥
+     */
+    private byte[] secret;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        String uploadPath = StringUtils.hasText(fileStorageConfig.getUploadPath()) ? fileStorageConfig.getUploadPath() : "./uploads";
+        root = Paths.get(uploadPath).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("本地文件存储目录: {}", root);
+        tempRoot = root.resolveSibling(root.getFileName() + ".tmp");
+        Files.createDirectories(tempRoot);
+        
+        // 分片目录放在文件访问目录之外，未合并的分片不能被直接访问
+        String chunkTempPath = StringUtils.hasText(fileStorageConfig.getChunkTempPath()) ? fileStorageConfig.getChunkTempPath() : "./uploads-chunks";
+        chunkRoot = Paths.get(chunkTempPath).toAbsolutePath().normalize();
+        Files.createDirectories(chunkRoot);
+        
+        if (StringUtils.hasText(fileStorageConfig.getDirectSecret())) {
+            // 公开的示例密钥可以被任何人用来伪造匿名直传地址，不允许使用
+            if (fileStorageConfig.getDirectSecret().contains(PLACEHOLDER_SECRET_MARK)) {
+                throw new IllegalStateException("file.direct-secret 仍是示例值，请配置随机密钥或留空");
+            }
+            secret = fileStorageConfig.getDirectSecret().getBytes(StandardCharsets.UTF_8);
+        } else {
+            // 未配置密钥时随机生成，只在单节点部署时可用（其他节点无法校验本节点签发的地址）
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            log.warn("未配置 file.direct-secret，已随机生成直传地址签名密钥，多节点部署时请配置相同的密钥");
+        }
+    }
+    
+    @Override
+    public String upload(String objectKey, InputStream inputStream, long contentLength, String contentType) {
+        try {
+            writeAtomically(resolve(objectKey), inputStream, -1, true);
+            return getUrl(objectKey);
+        } catch (IOException e) {
+            throw new RuntimeException("文件写入失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 上传文件，目标已存在时不覆盖（直传地址使用，签名地址在有效期内不能用来替换已上传的文件）
+     * @throws IllegalStateException 文件已存在
+     */
+    public void uploadIfAbsent(String objectKey, InputStream inputStream) {
+        try {
+            writeAtomically(resolve(objectKey), inputStream, -1, false);
+        } catch (FileAlreadyExistsException e) {
+            throw new IllegalStateException("文件已存在");
+        } catch (IOException e) {
+            throw new RuntimeException("文件写入失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public InputStream download(String objectKey) {
+        try {
+            return Files.newInputStream(resolve(objectKey));
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("文件不存在");
+        } catch (IOException e) {
+            throw new RuntimeException("文件读取失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public InputStream download(String objectKey, long start, long end) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(resolve(objectKey), StandardOpenOption.READ);
+            channel.position(start);
+            return new RangeInputStream(Channels.newInputStream(channel), end - start + 1);
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("文件不存在");
+        } catch (IOException e) {
+            ResourceUtil.closeQuietly(channel);
+            throw new RuntimeException("文件读取失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public void delete(String objectKey) {
+        try {
+            Files.deleteIfExists(resolve(objectKey));
+        } catch (IOException e) {
+            throw new RuntimeException("文件删除失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Path getLocalPath(String objectKey) {
+        Path path = resolve(objectKey);
+        return Files.isRegularFile(path) ? path : null;
+    }
+    
+    /**
+     * 对象键 -> 本地路径，不允许超出存储根目录
+     */
+    private Path resolve(String objectKey) {
+        Path path = root.resolve(objectKey).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("非法的文件路径");
+        }
+        return path;
+    }
+    
+    @Override
+    public String generateUploadUrl(String objectKey, String contentType, long expireSeconds) {
+        long expires = System.currentTimeMillis() / 1000 + expireSeconds;
+        return DIRECT_PATH + "?key=" + encode(objectKey)
+                + "&expires=" + expires
+                + "&signature=" + sign("PUT", objectKey, expires, contentType);
+    }
+    
+    @Override
+    public String generateDownloadUrl(String objectKey, String fileName, long expireSeconds) {
+        long expires = System.currentTimeMillis() / 1000 + expireSeconds;
+        return DIRECT_PATH + "?key=" + encode(objectKey)
+                + "&name=" + encode(fileName != null ? fileName : "")
+                + "&expires=" + expires
+                + "&signature=" + sign("GET", objectKey, expires, fileName);
+    }
+    
+    @Override
+    public StoredObject stat(String objectKey) {
+        Path path = getLocalPath(objectKey);
+        if (path == null) {
+            return null;
+        }
+        try {
+            return new StoredObject(Files.size(path), readContentHash(path));
+        } catch (IOException e) {
+            throw new RuntimeException("文件读取失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public String initiateMultipartUpload(String objectKey, String contentType) {
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        try {
+            Files.createDirectories(chunkRoot.resolve(uploadId));
+        } catch (IOException e) {
+            throw new RuntimeException("创建分片目录失败: " + e.getMessage(), e);
+        }
+        return uploadId;
+    }
+    
+    @Override
+    public String uploadPart(String objectKey, String uploadId, int partNumber, InputStream inputStream, long partSize) {
+        Path dir = resolveChunkDir(uploadId);
+        Path part = dir.resolve(partNumber + PART_SUFFIX);
+        try {
+            // 大小不一致时不替换已上传的同序号分片
+            writeAtomically(part, inputStream, partSize, true);
+            return String.valueOf(partNumber);
+        } catch (IOException e) {
+            throw new RuntimeException("分片写入失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public void completeMultipartUpload(String objectKey, String uploadId, Map<Integer, String> parts) {
+        Path dir = resolveChunkDir(uploadId);
+        Path target = resolve(objectKey);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(tempRoot, "upload-", ".tmp");
+            // 按序号依次追加分片，经同一个缓冲区读写，顺带计算整个文件的MD5
+            MessageDigest digest = newMd5();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(MERGE_BUFFER_SIZE);
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                for (Integer partNumber : new TreeSet<>(parts.keySet())) {
+                    try (FileChannel in = FileChannel.open(dir.resolve(partNumber + PART_SUFFIX), StandardOpenOption.READ)) {
+                        while (in.read(buffer) > 0) {
+                            buffer.flip();
+                            digest.update(buffer.duplicate());
+                            while (buffer.hasRemaining()) {
+                                out.write(buffer);
+                            }
+                            buffer.clear();
+                        }
+                    }
+                }
+            }
+            writeContentHash(temp, digest);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (NoSuchFileException e) {
+            deleteQuietly(temp);
+            throw new IllegalArgumentException("分片不存在: " + e.getFile());
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new RuntimeException("合并分片失败: " + e.getMessage(), e);
+        }
+        deleteDirectoryQuietly(dir);
+    }
+    
+    @Override
+    public void abortMultipartUpload(String objectKey, String uploadId) {
+        deleteDirectoryQuietly(resolveChunkDir(uploadId));
+    }
+    
+    /**
+     * 定时清理过期未完成的分片上传目录，以及异常退出时残留的上传临时文件
+     */
+    @Scheduled(fixedDelay = 60 * 60 * 1000, initialDelay = 10 * 60 * 1000)
+    public void cleanExpiredChunks() {
+        long expireBefore = System.currentTimeMillis() - fileStorageConfig.getChunkUploadExpireHours() * 60 * 60 * 1000;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(chunkRoot, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                if (Files.getLastModifiedTime(dir).toMillis() < expireBefore) {
+                    deleteDirectoryQuietly(dir);
+                    log.info("已清理过期的分片上传目录: {}", dir.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理分片上传目录失败: {}", e.getMessage());
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempRoot, Files::isRegularFile)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < expireBefore) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理上传临时文件失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 校验直传地址签名
+     * @param method 请求方式：PUT-上传，GET-下载
+     * @param extra 上传时为 Content-Type，下载时为文件名
+     */
+    public boolean verifySignature(String method, String objectKey, long expires, String extra, String signature) {
+        if (signature == null || expires < System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        byte[] expected = sign(method, objectKey, expires, extra).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    /**
+     * 签名内容：请求方式、对象键、过期时间、Content-Type 或文件名，HmacSHA256 后转十六进制
+     */
+    private String sign(String method, String objectKey, long expires, String extra) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, SIGNATURE_ALGORITHM));
+            String content = method + "\n" + objectKey + "\n" + expires + "\n" + (extra != null ? extra : "");
+            return HexFormat.of().formatHex(mac.doFinal(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("直传地址签名失败", e);
+        }
+    }
+    
+    private String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 先写入临时目录下的临时文件，写完后改名，读取方不会看到写了一半的文件
+     * @param expectedSize 预期的字节数，写入的字节数不一致时抛出 IllegalArgumentException 且不改名；-1 表示不校验
+     * @param replaceExisting 是否覆盖已存在的文件，不覆盖时目标已存在抛出 FileAlreadyExistsException
+     * @return 写入的字节数
+     */
+    private long writeAtomically(Path target, InputStream inputStream, long expectedSize, boolean replaceExisting) throws IOException {
+        Files.createDirectories(target.getParent());
+        // 存储目录下的文件使用上传临时目录，分片直接写在所在的分片目录（file.chunk-temp-path 可能在其他文件系统）
+        Path tempDir = target.startsWith(root) ? tempRoot : target.getParent();
+        Path temp = Files.createTempFile(tempDir, "upload-", ".tmp");
+        try {
+            DigestInputStream digestStream = new DigestInputStream(inputStream, newMd5());
+            ReadableByteChannel source = Channels.newChannel(digestStream);
+            long position = 0;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+                    position += transferred;
+                }
+            }
+            if (expectedSize >= 0 && position != expectedSize) {
+                throw new IllegalArgumentException("文件大小不一致");
+            }
+            writeContentHash(temp, digestStream.getMessageDigest());
+            if (replaceExisting) {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                // 原子改名会直接替换已存在的文件；硬链接在目标已存在时失败，再删除临时文件
+                Files.createLink(target, temp);
+                deleteQuietly(temp);
+            }
+            return position;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+    
+    private MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 算法不可用", e);
+        }
+    }
+    
+    /**
+     * 把内容MD5写入文件扩展属性，改名后属性随文件保留；文件系统不支持时跳过
+     */
+    private void writeContentHash(Path path, MessageDigest digest) {
+        UserDefinedFileAttributeView view = Files.getFileAttributeView(path, UserDefinedFileAttributeView.class);
+        if (view == null) {
+            return;
+        }
+        try {
+            view.write(HASH_ATTRIBUTE, StandardCharsets.US_ASCII.encode(HexFormat.of().formatHex(digest.digest())));
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("文件系统不支持扩展属性，不保存内容MD5: {}", path);
+        }
+    }
+    
+    /**
+     * 读取文件扩展属性中的内容MD5，未保存时返回 null
+     */
+    private String readContentHash(Path path) {
+        UserDefinedFileAttributeView view = Files.getFileAttributeView(path, UserDefinedFileAttributeView.class);
+        if (view == null) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(view.size(HASH_ATTRIBUTE));
+            view.read(HASH_ATTRIBUTE, buffer);
+            buffer.flip();
+            return StandardCharsets.US_ASCII.decode(buffer).toString();
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * 分片上传ID -> 分片目录，只接受本后端生成的ID
+     */
+    private Path resolveChunkDir(String uploadId) {
+        if (uploadId == null || !uploadId.matches("[0-9a-f]{32}")) {
+            throw new IllegalArgumentException("分片上传ID格式错误");
+        }
+        Path dir = chunkRoot.resolve(uploadId);
+        if (!Files.isDirectory(dir)) {
+            throw new IllegalArgumentException("分片上传不存在或已过期");
+        }
+        return dir;
+    }
+    
+    private void deleteDirectoryQuietly(Path dir) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.warn("删除分片目录失败: {}", dir, e);
+        }
+    }
+    
+    /**
+     * 构建文件访问 URL
+     */
+    @Override
+    public String getUrl(String objectKey) {
+        String accessPath = StringUtils.hasText(fileStorageConfig.getAccessPath()) ? fileStorageConfig.getAccessPath() : "/uploads";
+        return accessPath.endsWith("/") ? accessPath + objectKey : accessPath + "/" + objectKey;
+    }
+    
+    /**
+     * 只读取指定字节数的输入流
+     */
+    private static final class RangeInputStream extends FilterInputStream {
+        private long remaining;
+        
+        private RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+        
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+    
+    private void deleteQuietly(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("删除临时文件失败: {}", path, e);
+            }
+        }
+    }
+}
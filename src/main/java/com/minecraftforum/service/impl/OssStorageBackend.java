@@ -0,0 +1,291 @@
+package com.minecraftforum.service.impl;
+
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.HttpMethod;
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.GeneratePresignedUrlRequest;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ListMultipartUploadsRequest;
+import com.aliyun.oss.model.ListPartsRequest;
+import com.aliyun.oss.model.MultipartUpload;
+import com.aliyun.oss.model.MultipartUploadListing;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.PartListing;
+import com.aliyun.oss.model.PartSummary;
+import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.ResponseHeaderOverrides;
+import com.aliyun.oss.model.UploadPartRequest;
+import com.minecraftforum.config.FileStorageConfig;
+import com.minecraftforum.config.OssConfig;
+import com.minecraftforum.service.StorageBackend;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 阿里云 OSS 存储后端（file.storage-type=oss，默认）
+ * 整个应用共用一个 OSS 客户端，客户端内部维护 HTTP 连接池并复用长连接，
+ * 避免每次文件操作都重新建立连接池、解析域名和进行 TLS 握手；应用关闭时释放
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "file", name = "storage-type", havingValue = FileStorageConfig.STORAGE_TYPE_OSS, matchIfMissing = true)
+@RequiredArgsConstructor
+public class OssStorageBackend implements StorageBackend {
+    
+    private static final String MULTIPART_KEY_PREFIX = "files/"; // 只清理本应用发起的分片上传
+    private static final String FORBID_OVERWRITE_HEADER = "x-oss-forbid-overwrite"; // 目标已存在时上传失败（409）
+    
+    private final OssConfig ossConfig;
+    private final FileStorageConfig fileStorageConfig;
+    
+    /**
+     * 共享的 OSS 客户端，首次使用时创建（未配置 OSS 密钥时不影响应用启动）
+     */
+    private volatile OSS ossClient;
+    
+    private OSS getClient() {
+        OSS client = ossClient;
+        if (client != null) {
+            return client;
+        }
+        synchronized (this) {
+            if (ossClient == null) {
+                ClientBuilderConfiguration configuration = new ClientBuilderConfiguration();
+                configuration.setMaxConnections(ossConfig.getMaxConnections());
+                configuration.setConnectionTimeout(ossConfig.getConnectionTimeout());
+                configuration.setSocketTimeout(ossConfig.getSocketTimeout());
+                configuration.setConnectionRequestTimeout(ossConfig.getConnectionRequestTimeout());
+                configuration.setIdleConnectionTime(ossConfig.getIdleConnectionTime());
+                ossClient = new OSSClientBuilder().build(
+                        ossConfig.getEndpoint(),
+                        ossConfig.getAccessKeyId(),
+                        ossConfig.getAccessKeySecret(),
+                        configuration
+                );
+                log.info("OSS 客户端初始化完成: endpoint={}, bucket={}, maxConnections={}",
+                        ossConfig.getEndpoint(), ossConfig.getBucketName(), ossConfig.getMaxConnections());
+            }
+            return ossClient;
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (ossClient != null) {
+            ossClient.shutdown();
+            log.info("OSS 客户端已关闭");
+        }
+    }
+    
+    @Override
+    public String upload(String objectKey, InputStream inputStream, long contentLength, String contentType) {
+        // 预先设置长度，SDK 不必缓冲整个流来计算长度
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(contentLength);
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        getClient().putObject(new PutObjectRequest(ossConfig.getBucketName(), objectKey, inputStream, metadata));
+        return getUrl(objectKey);
+    }
+    
+    @Override
+    public InputStream download(String objectKey) {
+        return getClient().getObject(ossConfig.getBucketName(), objectKey).getObjectContent();
+    }
+    
+    @Override
+    public InputStream download(String objectKey, long start, long end) {
+        // 按范围读取，只传输需要的字节
+        GetObjectRequest request = new GetObjectRequest(ossConfig.getBucketName(), objectKey);
+        request.setRange(start, end);
+        return getClient().getObject(request).getObjectContent();
+    }
+    
+    @Override
+    public void delete(String objectKey) {
+        getClient().deleteObject(ossConfig.getBucketName(), objectKey);
+    }
+    
+    @Override
+    public String generateUploadUrl(String objectKey, String contentType, long expireSeconds) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(ossConfig.getBucketName(), objectKey, HttpMethod.PUT);
+        request.setExpiration(new Date(System.currentTimeMillis() + expireSeconds * 1000));
+        if (contentType != null) {
+            request.setContentType(contentType);
+        }
+        // 禁止覆盖同名对象，直传地址在有效期内不能用来替换已上传的文件
+        request.addHeader(FORBID_OVERWRITE_HEADER, "true");
+        return getClient().generatePresignedUrl(request).toString();
+    }
+    
+    @Override
+    public Map<String, String> getUploadHeaders(String contentType) {
+        return Map.of("Content-Type", contentType, FORBID_OVERWRITE_HEADER, "true");
+    }
+    
+    @Override
+    public String generateDownloadUrl(String objectKey, String fileName, long expireSeconds) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(ossConfig.getBucketName(), objectKey, HttpMethod.GET);
+        request.setExpiration(new Date(System.currentTimeMillis() + expireSeconds * 1000));
+        if (fileName != null) {
+            // 由 OSS 返回附件形式的下载响应，保留原始文件名
+            ResponseHeaderOverrides overrides = new ResponseHeaderOverrides();
+            overrides.setContentDisposition(ContentDisposition.attachment()
+                    .filename(fileName, StandardCharsets.UTF_8)
+                    .build()
+                    .toString());
+            request.setResponseHeaders(overrides);
+        }
+        return getClient().generatePresignedUrl(request).toString();
+    }
+    
+    @Override
+    public StoredObject stat(String objectKey) {
+        try {
+            ObjectMetadata metadata = getClient().getObjectMetadata(ossConfig.getBucketName(), objectKey);
+            // 简单上传的 ETag 即内容的MD5；分片上传的 ETag 不是，OSS 也不提供整个对象的MD5，此时不记录内容摘要（下载只用 Last-Modified）
+            String eTag = metadata.getETag();
+            String contentHash = eTag != null && eTag.matches("[0-9A-Fa-f]{32}") ? eTag.toLowerCase() : null;
+            return new StoredObject(metadata.getContentLength(), contentHash);
+        } catch (OSSException e) {
+            if (OSSErrorCode.NO_SUCH_KEY.equals(e.getErrorCode())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+    
+    @Override
+    public String initiateMultipartUpload(String objectKey, String contentType) {
+        InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(ossConfig.getBucketName(), objectKey);
+        if (contentType != null) {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentType(contentType);
+            request.setObjectMetadata(metadata);
+        }
+        return getClient().initiateMultipartUpload(request).getUploadId();
+    }
+    
+    @Override
+    public String uploadPart(String objectKey, String uploadId, int partNumber, InputStream inputStream, long partSize) {
+        UploadPartRequest request = new UploadPartRequest(ossConfig.getBucketName(), objectKey);
+        request.setUploadId(uploadId);
+        request.setPartNumber(partNumber);
+        request.setInputStream(inputStream);
+        request.setPartSize(partSize);
+        return getClient().uploadPart(request).getPartETag().getETag();
+    }
+    
+    @Override
+    public void completeMultipartUpload(String objectKey, String uploadId, Map<Integer, String> parts) {
+        List<PartETag> partETags = new ArrayList<>(parts.size());
+        parts.forEach((partNumber, eTag) -> partETags.add(new PartETag(partNumber, eTag)));
+        partETags.sort(Comparator.comparingInt(PartETag::getPartNumber));
+        getClient().completeMultipartUpload(
+                new CompleteMultipartUploadRequest(ossConfig.getBucketName(), objectKey, uploadId, partETags));
+    }
+    
+    @Override
+    public void abortMultipartUpload(String objectKey, String uploadId) {
+        getClient().abortMultipartUpload(new AbortMultipartUploadRequest(ossConfig.getBucketName(), objectKey, uploadId));
+    }
+    
+    /**
+     * 定时取消过期未完成的分片上传
+     * 分片上传会话过期后，OSS 上已上传的分片仍会保留并计费，这里取消发起时间和最后一个分片的上传时间
+     * 都超过保留时间的上传（会话每上传一个分片续期一次，与本地存储按分片目录修改时间清理一致）；
+     * 也可以在 Bucket 上配置生命周期规则（AbortMultipartUpload）由 OSS 自动清理
+     */
+    @Scheduled(fixedDelay = 60 * 60 * 1000, initialDelay = 10 * 60 * 1000)
+    public void abortExpiredMultipartUploads() {
+        if (!StringUtils.hasText(ossConfig.getAccessKeyId()) || !StringUtils.hasText(ossConfig.getBucketName())) {
+            return;
+        }
+        long expireBefore = System.currentTimeMillis() - fileStorageConfig.getChunkUploadExpireHours() * 60 * 60 * 1000;
+        try {
+            ListMultipartUploadsRequest request = new ListMultipartUploadsRequest(ossConfig.getBucketName());
+            request.setPrefix(MULTIPART_KEY_PREFIX);
+            MultipartUploadListing listing;
+            do {
+                listing = getClient().listMultipartUploads(request);
+                for (MultipartUpload upload : listing.getMultipartUploads()) {
+                    if (upload.getInitiated() != null && upload.getInitiated().getTime() < expireBefore
+                            && getLastPartTime(upload) < expireBefore) {
+                        abortQuietly(upload);
+                    }
+                }
+                request.setKeyMarker(listing.getNextKeyMarker());
+                request.setUploadIdMarker(listing.getNextUploadIdMarker());
+            } while (listing.isTruncated());
+        } catch (Exception e) {
+            log.warn("清理过期分片上传失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 最后一个分片的上传时间，没有分片时返回 0
+     */
+    private long getLastPartTime(MultipartUpload upload) {
+        ListPartsRequest request = new ListPartsRequest(ossConfig.getBucketName(), upload.getKey(), upload.getUploadId());
+        long lastPartTime = 0;
+        PartListing listing;
+        do {
+            listing = getClient().listParts(request);
+            for (PartSummary part : listing.getParts()) {
+                if (part.getLastModified() != null) {
+                    lastPartTime = Math.max(lastPartTime, part.getLastModified().getTime());
+                }
+            }
+            request.setPartNumberMarker(listing.getNextPartNumberMarker());
+        } while (listing.isTruncated());
+        return lastPartTime;
+    }
+    
+    private void abortQuietly(MultipartUpload upload) {
+        try {
+            abortMultipartUpload(upload.getKey(), upload.getUploadId());
+            log.info("已取消过期的分片上传: key={}, uploadId={}", upload.getKey(), upload.getUploadId());
+        } catch (OSSException e) {
+            // 其他节点已取消或刚好完成
+            log.debug("取消分片上传失败: key={}, error={}", upload.getKey(), e.getErrorCode());
+        }
+    }
+    
+    /**
+     * 构建文件访问 URL
+     */
+    @Override
+    public String getUrl(String objectKey) {
+        String domain = ossConfig.getDomain();
+        if (domain != null && domain.endsWith("/")) {
+            return domain + objectKey;
+        } else if (domain != null) {
+            return domain + "/" + objectKey;
+        }
+        // 如果没有配置域名，使用 endpoint 和 bucket 构建
+        String endpoint = ossConfig.getEndpoint().replace("https://", "").replace("http://", "");
+        return "https://" + ossConfig.getBucketName() + "." + endpoint + "/" + objectKey;
+    }
+}
@@ -3,30 +3,53 @@ package com.minecraftforum.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.minecraftforum.dto.PermissionTreeNode;
 import com.minecraftforum.entity.Permission;
-import com.minecraftforum.entity.RolePermission;
-import com.minecraftforum.entity.UserRole;
+import com.minecraftforum.event.UserPermissionUpdateEvent;
 import com.minecraftforum.mapper.PermissionMapper;
-import com.minecraftforum.mapper.RolePermissionMapper;
-import com.minecraftforum.mapper.UserRoleMapper;
+import com.minecraftforum.service.PageCountService;
+import com.minecraftforum.service.PageCountService.CountScope;
+import com.minecraftforum.service.PermissionCacheService;
 import com.minecraftforum.service.PermissionService;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PermissionServiceImpl implements PermissionService {
     
+    private static final String USER_PERMISSION_CACHE_PREFIX = "perm:user:"; // 用户权限缓存 key格式: perm:user:{userId}
+    private static final long USER_PERMISSION_CACHE_EXPIRE_HOURS = 2; // 用户权限缓存过期时间：2小时
+    
     private final PermissionMapper permissionMapper;
-    private final UserRoleMapper userRoleMapper;
-    private final RolePermissionMapper rolePermissionMapper;
+    private final PermissionCacheService permissionCacheService;
+    private final PageCountService pageCountService;
+    private final StringRedisTemplate redisTemplate;
+    
+    // 初始化 ObjectMapper，支持 Java 8 时间类型
+    private final ObjectMapper objectMapper = createObjectMapper();
+    
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
     
     @Override
     public List<Permission> getAllPermissions() {
@@ -71,7 +94,8 @@ public class PermissionServiceImpl implements PermissionService {
         wrapper.orderByAsc(Permission::getSortOrder);
         wrapper.orderByDesc(Permission::getCreateTime);
         
-        return permissionMapper.selectPage(page, wrapper);
+        String signature = "keyword=" + keyword + "&type=" + type;
+        return pageCountService.selectPage(permissionMapper, page, wrapper, CountScope.PERMISSION, signature);
     }
     
     @Override
@@ -100,6 +124,9 @@ public class PermissionServiceImpl implements PermissionService {
             permission.setParentId(0L);
         }
         permissionMapper.insert(permission);
+        pageCountService.evict(CountScope.PERMISSION);
+        // 通知所有节点重建权限缓存
+        permissionCacheService.publishPermissionChange();
         return permission;
     }
     
@@ -107,46 +134,76 @@ public class PermissionServiceImpl implements PermissionService {
     public Permission updatePermission(Permission permission) {
         permission.setUpdateTime(LocalDateTime.now());
         permissionMapper.updateById(permission);
+        pageCountService.evict(CountScope.PERMISSION);
+        permissionCacheService.publishPermissionChange();
         return permission;
     }
     
     @Override
     public void deletePermission(Long id) {
         permissionMapper.deleteById(id);
+        pageCountService.evict(CountScope.PERMISSION);
+        permissionCacheService.publishPermissionChange();
     }
     
     @Override
     public List<Permission> getUserPermissions(Long userId) {
-        // 只通过角色获取用户权限（已移除直接分配权限功能）
-        LambdaQueryWrapper<UserRole> userRoleWrapper = new LambdaQueryWrapper<>();
-        userRoleWrapper.eq(UserRole::getUserId, userId);
-        List<UserRole> userRoles = userRoleMapper.selectList(userRoleWrapper);
-        
-        if (userRoles.isEmpty()) {
+        if (userId == null) {
             return List.of();
         }
+        // 只通过角色获取用户权限（已移除直接分配权限功能）
+        // 先查缓存，缓存带有权限配置版本号，权限或角色权限变更后自动失效
+        long version = permissionCacheService.getRouteMatcher().getVersion();
+        String cacheKey = USER_PERMISSION_CACHE_PREFIX + userId;
+        try {
+            String json = redisTemplate.opsForValue().get(cacheKey);
+            if (json != null) {
+                CachedUserPermissions cached = objectMapper.readValue(json, CachedUserPermissions.class);
+                if (cached.getVersion() == version && cached.getPermissions() != null) {
+                    return cached.getPermissions();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取用户权限缓存失败: userId={}, error={}", userId, e.getMessage());
+        }
         
-        // 获取用户通过角色获得的权限代码
-        List<String> rolePermissionCodes = userRoles.stream()
-            .flatMap(ur -> {
-                LambdaQueryWrapper<RolePermission> rolePermWrapper = new LambdaQueryWrapper<>();
-                rolePermWrapper.eq(RolePermission::getRoleId, ur.getRoleId());
-                return rolePermissionMapper.selectList(rolePermWrapper).stream()
-                    .map(RolePermission::getPermissionCode);
-            })
-            .distinct()
-            .collect(Collectors.toList());
+        // 用户角色 -> 角色权限 -> 权限 一次联表查询
+        List<Permission> permissions = permissionMapper.selectUserPermissions(userId);
         
-        // 通过权限代码查询权限
-        if (rolePermissionCodes.isEmpty()) {
-            return List.of();
+        try {
+            CachedUserPermissions cached = new CachedUserPermissions();
+            cached.setVersion(version);
+            cached.setPermissions(permissions);
+            redisTemplate.opsForValue().set(cacheKey, objectMapper.writeValueAsString(cached),
+                    USER_PERMISSION_CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        } catch (Exception e) {
+            log.warn("写入用户权限缓存失败: userId={}, error={}", userId, e.getMessage());
         }
-        
-        LambdaQueryWrapper<Permission> permWrapper = new LambdaQueryWrapper<>();
-        permWrapper.in(Permission::getCode, rolePermissionCodes);
-        permWrapper.eq(Permission::getStatus, 1);
-        permWrapper.orderByAsc(Permission::getSortOrder);
-        return permissionMapper.selectList(permWrapper);
+        return permissions;
+    }
+    
+    /**
+     * 用户角色变更时清除用户权限缓存（同步执行，保证后续的 Token 同步读到最新权限）
+     */
+    @EventListener
+    public void evictUserPermissionCache(UserPermissionUpdateEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(USER_PERMISSION_CACHE_PREFIX + event.getUserId());
+        } catch (Exception e) {
+            log.warn("清除用户权限缓存失败: userId={}, error={}", event.getUserId(), e.getMessage());
+        }
+    }
+    
+    /**
+     * 带版本号的用户权限缓存
+     */
+    @Data
+    public static class CachedUserPermissions {
+        private long version;
+        private List<Permission> permissions;
     }
     
     // 以下方法已废弃：直接分配权限功能已移除，权限统一通过角色管理
@@ -2,15 +2,28 @@ package com.minecraftforum.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.minecraftforum.config.ForumConfig;
+import com.minecraftforum.dto.CursorPage;
 import com.minecraftforum.dto.ResourceDTO;
 import com.minecraftforum.entity.*;
+import com.minecraftforum.event.CategoryConfigChangedEvent;
 import com.minecraftforum.mapper.*;
 import com.minecraftforum.config.custom.annotations.IndexToElasticsearch;
+import com.minecraftforum.security.GrantedPermissions;
+import com.minecraftforum.security.LoginUser;
+import com.minecraftforum.service.CategoryConfigService;
+import com.minecraftforum.service.EngagementCacheService;
+import com.minecraftforum.service.EngagementCacheService.EngagementType;
+import com.minecraftforum.service.PageCountService;
+import com.minecraftforum.service.PageCountService.CountScope;
 import com.minecraftforum.service.ResourceService;
+import com.minecraftforum.util.FeedCursor;
+import com.minecraftforum.util.LocalCache;
 import com.minecraftforum.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -19,13 +32,26 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ResourceServiceImpl implements ResourceService {
     
+    private static final String RESOURCE_CATEGORY_TYPE = "RESOURCE"; // 资源分类配置类型
+    private static final String HOME_PERMISSION_PREFIX = "page:home:"; // 首页分类权限前缀
+    private static final String HOME_ALL_PERMISSION = "page:home:all"; // 首页全部分类权限
+    private static final int DEFAULT_FEED_PAGE_SIZE = 10; // 游标分页默认每页条数
+    private static final int MAX_FEED_PAGE_SIZE = 50; // 游标分页最大每页条数
+    
     private final ResourceMapper resourceMapper;
     private final LikeMapper likeMapper;
     private final FavoriteMapper favoriteMapper;
@@ -34,38 +60,144 @@ public class ResourceServiceImpl implements ResourceService {
     private final ResourceTagMapper resourceTagMapper;
     private final ForumConfig forumConfig;
     private final SecurityUtil securityUtil;
+    private final EngagementCacheService engagementCacheService;
+    private final CategoryConfigService categoryConfigService;
+    private final PageCountService pageCountService;
+    
+    /**
+     * 权限集合 -> 允许查看的分类，分类配置变更时清空
+     */
+    private final LocalCache<GrantedPermissions, List<String>> allowedCategoryCache = new LocalCache<>(1000, 0);
+    
+    /**
+     * 分类配置变更后清空允许分类缓存
+     */
+    @EventListener
+    public void onCategoryConfigChanged(CategoryConfigChangedEvent event) {
+        allowedCategoryCache.invalidateAll();
+    }
     
     @Override
     public IPage<ResourceDTO> getResourceList(Page<Resource> page, String category, String keyword, Long authorId) {
-        LambdaQueryWrapper<Resource> wrapper = new LambdaQueryWrapper<>();
+        List<String> categories = resolveListCategories(category);
+        if (categories != null && categories.isEmpty()) {
+            // 如果用户没有任何分类权限，返回空结果
+            IPage<ResourceDTO> emptyPage = new Page<>(page.getCurrent(), page.getSize(), 0);
+            emptyPage.setRecords(new ArrayList<>());
+            return emptyPage;
+        }
+        
+        LambdaQueryWrapper<Resource> wrapper = buildResourceListQuery(categories, keyword, authorId);
+        wrapper.orderByDesc(Resource::getCreateTime);
         
+        IPage<Resource> resourcePage;
+        if (!StringUtils.hasText(keyword) && authorId == null) {
+            // 只按分类筛选已审核资源时总数取自分类计数器
+            long total = pageCountService.getCategoryCount(CountScope.RESOURCE, categories);
+            resourcePage = pageCountService.selectPage(resourceMapper, page, wrapper, total);
+        } else {
+            String signature = "categories=" + categories + "&keyword=" + keyword + "&author=" + authorId;
+            resourcePage = pageCountService.selectPage(resourceMapper, page, wrapper, CountScope.RESOURCE, signature);
+        }
+        
+        // 转换为 DTO 并填充作者信息
+        Long currentUserId = securityUtil.getCurrentUserId();
+        IPage<ResourceDTO> dtoPage = new Page<>(resourcePage.getCurrent(), resourcePage.getSize(), resourcePage.getTotal());
+        dtoPage.setRecords(convertToDTOList(resourcePage.getRecords(), currentUserId));
+        
+        return dtoPage;
+    }
+    
+    @Override
+    public CursorPage<ResourceDTO> getResourceFeed(String cursor, Integer pageSize, String category, String keyword, Long authorId, String sortBy) {
+        FeedCursor feedCursor = FeedCursor.decode(cursor);
+        List<String> categories = resolveListCategories(category);
+        if (categories != null && categories.isEmpty()) {
+            return CursorPage.of(new ArrayList<>(), null);
+        }
+        
+        LambdaQueryWrapper<Resource> wrapper = buildResourceListQuery(categories, keyword, authorId);
+        SFunction<Resource, ?> sortColumn;
+        Function<Resource, Object> sortValue;
+        Function<String, ?> valueParser;
+        String sortKey = sortBy != null ? sortBy : "createTime";
+        switch (sortKey) {
+            case "downloadCount":
+                sortColumn = Resource::getDownloadCount;
+                sortValue = Resource::getDownloadCount;
+                valueParser = Integer::valueOf;
+                break;
+            case "likeCount":
+                sortColumn = Resource::getLikeCount;
+                sortValue = Resource::getLikeCount;
+                valueParser = Integer::valueOf;
+                break;
+            case "createTime":
+            default:
+                sortColumn = Resource::getCreateTime;
+                sortValue = Resource::getCreateTime;
+                valueParser = LocalDateTime::parse;
+                break;
+        }
+        FeedCursor.apply(wrapper, feedCursor, sortColumn, Resource::getId, valueParser);
+        
+        // 多查一条判断是否还有下一页
+        int size = Math.max(1, Math.min(pageSize != null ? pageSize : DEFAULT_FEED_PAGE_SIZE, MAX_FEED_PAGE_SIZE));
+        wrapper.last("LIMIT " + (size + 1));
+        List<Resource> resources = resourceMapper.selectList(wrapper);
+        
+        String nextCursor = null;
+        if (resources.size() > size) {
+            resources = resources.subList(0, size);
+            Resource last = resources.get(size - 1);
+            nextCursor = FeedCursor.encode(sortValue.apply(last), last.getId());
+        }
+        
+        Long currentUserId = securityUtil.getCurrentUserId();
+        return CursorPage.of(convertToDTOList(resources, currentUserId), nextCursor);
+    }
+    
+    /**
+     * 解析资源列表可查询的分类
+     * 指定了分类时只查该分类；查询"全部"时按用户权限过滤分类（允许匿名访问且用户未登录时不过滤）
+     * @return null 表示不限分类，空列表表示用户没有任何分类权限
+     */
+    private List<String> resolveListCategories(String category) {
         if (StringUtils.hasText(category)) {
             // 指定了具体分类，直接查询该分类
-            wrapper.eq(Resource::getCategory, category);
-        } else {
-            // 当category为空（即"全部"）时，根据用户权限过滤分类
-            // 如果允许匿名访问且用户未登录，显示所有分类
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            boolean isAnonymous = authentication == null 
-                    || !authentication.isAuthenticated() 
-                    || "anonymousUser".equals(authentication.getPrincipal());
-            
-            if (forumConfig.getAnonymousAccess() != null && forumConfig.getAnonymousAccess() && isAnonymous) {
-                // 允许匿名访问且用户未登录，不进行权限过滤，显示所有分类
-                // 不添加分类条件，查询所有分类的资源
+            return List.of(category);
+        }
+        
+        // 当category为空（即"全部"）时，根据用户权限过滤分类
+        // 如果允许匿名访问且用户未登录，显示所有分类
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAnonymous = authentication == null 
+                || !authentication.isAuthenticated() 
+                || "anonymousUser".equals(authentication.getPrincipal());
+        
+        if (forumConfig.getAnonymousAccess() != null && forumConfig.getAnonymousAccess() && isAnonymous) {
+            // 允许匿名访问且用户未登录，不进行权限过滤，显示所有分类
+            return null;
+        }
+        // 根据用户权限过滤分类
+        // 例如：用户有MOD和整合包权限，查询"全部"时只返回这两个分类下的文章
+        // 如果用户没有MOD权限，查询"全部"时会排除MOD分类下的所有文章
+        return getAllowedCategories();
+    }
+    
+    /**
+     * 构建资源列表的筛选条件
+     * @param categories 可查询的分类，null 表示不限分类
+     */
+    private LambdaQueryWrapper<Resource> buildResourceListQuery(List<String> categories, String keyword, Long authorId) {
+        LambdaQueryWrapper<Resource> wrapper = new LambdaQueryWrapper<>();
+        
+        if (categories != null) {
+            if (categories.size() == 1) {
+                wrapper.eq(Resource::getCategory, categories.get(0));
             } else {
-                // 根据用户权限过滤分类
-                // 例如：用户有MOD和整合包权限，查询"全部"时只返回这两个分类下的文章
-                // 如果用户没有MOD权限，查询"全部"时会排除MOD分类下的所有文章
-                List<String> allowedCategories = getAllowedCategories();
-                if (allowedCategories.isEmpty()) {
-                    // 如果用户没有任何分类权限，返回空结果
-                    IPage<ResourceDTO> emptyPage = new Page<>(page.getCurrent(), page.getSize(), 0);
-                    emptyPage.setRecords(new ArrayList<>());
-                    return emptyPage;
-                }
                 // 使用IN查询，只返回用户有权限的分类下的文章
-                wrapper.in(Resource::getCategory, allowedCategories);
+                wrapper.in(Resource::getCategory, categories);
             }
         }
         
@@ -86,19 +218,7 @@ public class ResourceServiceImpl implements ResourceService {
             wrapper.in(Resource::getStatus, "APPROVED", "PENDING");
         }
         
-        wrapper.orderByDesc(Resource::getCreateTime);
-        
-        IPage<Resource> resourcePage = resourceMapper.selectPage(page, wrapper);
-        
-        // 转换为 DTO 并填充作者信息
-        Long currentUserId = securityUtil.getCurrentUserId();
-        IPage<ResourceDTO> dtoPage = new Page<>(resourcePage.getCurrent(), resourcePage.getSize(), resourcePage.getTotal());
-        List<ResourceDTO> dtoList = resourcePage.getRecords().stream()
-                .map(resource -> convertToDTO(resource, currentUserId))
-                .collect(Collectors.toList());
-        dtoPage.setRecords(dtoList);
-        
-        return dtoPage;
+        return wrapper;
     }
     
     @Override
@@ -129,15 +249,13 @@ public class ResourceServiceImpl implements ResourceService {
         
         wrapper.orderByDesc(Resource::getCreateTime);
         
-        IPage<Resource> resourcePage = resourceMapper.selectPage(page, wrapper);
+        String signature = "admin&category=" + category + "&keyword=" + keyword + "&author=" + authorId + "&status=" + status;
+        IPage<Resource> resourcePage = pageCountService.selectPage(resourceMapper, page, wrapper, CountScope.RESOURCE, signature);
         
         // 转换为 DTO 并填充作者信息
         Long currentUserId = securityUtil.getCurrentUserId();
         IPage<ResourceDTO> dtoPage = new Page<>(resourcePage.getCurrent(), resourcePage.getSize(), resourcePage.getTotal());
-        List<ResourceDTO> dtoList = resourcePage.getRecords().stream()
-                .map(resource -> convertToDTO(resource, currentUserId))
-                .collect(Collectors.toList());
-        dtoPage.setRecords(dtoList);
+        dtoPage.setRecords(convertToDTOList(resourcePage.getRecords(), currentUserId));
         
         return dtoPage;
     }
@@ -145,56 +263,46 @@ public class ResourceServiceImpl implements ResourceService {
     /**
      * 根据用户权限获取允许的分类列表
      * 
-     * 权限映射关系：
-     * - page:home:all -> 显示所有分类（PACK、MOD、RESOURCE）
-     * - page:home:pack -> PACK（整合包）
-     * - page:home:mod -> MOD
-     * - page:home:resource -> RESOURCE（资源包）
+     * 分类来自分类配置（类型 RESOURCE，已启用且代码非空），权限映射关系：
+     * - page:home:all -> 显示所有分类
+     * - page:home:{分类代码小写} -> 对应分类，如 page:home:pack -> PACK（整合包）
      * 
      * 示例：
      * - 用户有MOD和整合包权限 -> 返回["PACK", "MOD"]，查询"全部"时只返回这两个分类下的文章
      * - 用户没有MOD权限 -> 返回["PACK"]，查询"全部"时会排除MOD分类下的所有文章
      * 
+     * Token 认证的用户按权限集合缓存结果（同一角色组合共享同一个权限集合对象）
+     * 
      * @return 用户有权限的分类代码列表
      */
     private List<String> getAllowedCategories() {
-        List<String> allowedCategories = new ArrayList<>();
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
         // 如果用户未登录或者是匿名用户，返回空列表（不允许查看任何分类）
         if (authentication == null 
                 || !authentication.isAuthenticated() 
                 || "anonymousUser".equals(authentication.getPrincipal())) {
-            return allowedCategories;
+            return List.of();
         }
         
-        // 检查用户权限
-        boolean hasAll = securityUtil.hasPermission("page:home:all");
-        boolean hasPack = securityUtil.hasPermission("page:home:pack");
-        boolean hasMod = securityUtil.hasPermission("page:home:mod");
-        boolean hasResource = securityUtil.hasPermission("page:home:resource");
-        
-        // 根据权限添加允许的分类
-        if (hasAll) {
-            // 如果有"全部"权限，显示所有可能的分类
-            allowedCategories.add("PACK");      // 整合包
-            allowedCategories.add("MOD");        // MOD
-            allowedCategories.add("RESOURCE");   // 资源包
-        } else {
-            // 如果没有"全部"权限，只添加有权限的特定分类
-            // 这样查询"全部"时，只会返回用户有权限的分类下的文章
-            if (hasPack) {
-                allowedCategories.add("PACK");  // 整合包
-            }
-            if (hasMod) {
-                allowedCategories.add("MOD");    // MOD
-            }
-            if (hasResource) {
-                allowedCategories.add("RESOURCE"); // 资源包
-            }
+        if (authentication.getPrincipal() instanceof LoginUser loginUser) {
+            GrantedPermissions permissions = loginUser.getGrantedPermissions();
+            return allowedCategoryCache.get(permissions, key -> computeAllowedCategories(key::contains));
         }
-        
-        return allowedCategories;
+        return computeAllowedCategories(securityUtil::hasPermission);
+    }
+    
+    /**
+     * 按分类配置计算允许的分类
+     */
+    private List<String> computeAllowedCategories(Predicate<String> hasPermission) {
+        boolean hasAll = hasPermission.test(HOME_ALL_PERMISSION);
+        return categoryConfigService.getEnabledConfigs(RESOURCE_CATEGORY_TYPE).stream()
+                .map(CategoryConfig::getCode)
+                .filter(StringUtils::hasText)
+                .filter(code -> hasAll || hasPermission.test(HOME_PERMISSION_PREFIX + code.toLowerCase(Locale.ROOT)))
+                .distinct()
+                .toList();
     }
     
     @Override
@@ -211,6 +319,65 @@ public class ResourceServiceImpl implements ResourceService {
     }
     
     private ResourceDTO convertToDTO(Resource resource, Long currentUserId) {
+        ResourceDTO dto = buildResourceDTO(resource, userMapper.selectById(resource.getAuthorId()));
+        
+        // 查询标签
+        LambdaQueryWrapper<ResourceTag> tagWrapper = new LambdaQueryWrapper<>();
+        tagWrapper.eq(ResourceTag::getResourceId, resource.getId());
+        List<ResourceTag> tags = resourceTagMapper.selectList(tagWrapper);
+        dto.setTags(tags.stream().map(ResourceTag::getTagName).collect(Collectors.toList()));
+        
+        // 如果用户已登录，检查是否已点赞和收藏（未登录时均为 false）
+        dto.setIsLiked(engagementCacheService.isEngaged(currentUserId, EngagementType.RESOURCE_LIKE, resource.getId()));
+        dto.setIsFavorited(engagementCacheService.isEngaged(currentUserId, EngagementType.RESOURCE_FAVORITE, resource.getId()));
+        
+        return dto;
+    }
+    
+    /**
+     * 批量将资源转换为DTO
+     * 作者、标签各查询一次数据库，点赞/收藏状态从互动缓存整页判断
+     */
+    private List<ResourceDTO> convertToDTOList(List<Resource> resources, Long currentUserId) {
+        if (resources.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> resourceIds = resources.stream().map(Resource::getId).collect(Collectors.toList());
+        
+        List<Long> authorIds = resources.stream()
+                .map(Resource::getAuthorId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, User> userMap = authorIds.isEmpty() ? Collections.emptyMap()
+                : userMapper.selectBatchIds(authorIds).stream()
+                        .collect(Collectors.toMap(User::getId, user -> user, (a, b) -> a));
+        
+        LambdaQueryWrapper<ResourceTag> tagWrapper = new LambdaQueryWrapper<>();
+        tagWrapper.in(ResourceTag::getResourceId, resourceIds);
+        Map<Long, List<String>> tagMap = resourceTagMapper.selectList(tagWrapper).stream()
+                .collect(Collectors.groupingBy(ResourceTag::getResourceId,
+                        Collectors.mapping(ResourceTag::getTagName, Collectors.toList())));
+        
+        Set<Long> likedIds = engagementCacheService.filterEngaged(currentUserId, EngagementType.RESOURCE_LIKE, resourceIds);
+        Set<Long> favoritedIds = engagementCacheService.filterEngaged(currentUserId, EngagementType.RESOURCE_FAVORITE, resourceIds);
+        
+        List<ResourceDTO> dtoList = new ArrayList<>(resources.size());
+        for (Resource resource : resources) {
+            ResourceDTO dto = buildResourceDTO(resource, userMap.get(resource.getAuthorId()));
+            dto.setTags(tagMap.getOrDefault(resource.getId(), new ArrayList<>()));
+            dto.setIsLiked(likedIds.contains(resource.getId()));
+            dto.setIsFavorited(favoritedIds.contains(resource.getId()));
+            dtoList.add(dto);
+        }
+        return dtoList;
+    }
+    
+    /**
+     * 复制资源字段并填充已加载的作者信息
+     */
+    private ResourceDTO buildResourceDTO(Resource resource, User author) {
         ResourceDTO dto = new ResourceDTO();
         dto.setId(resource.getId());
         dto.setTitle(resource.getTitle());
@@ -227,37 +394,11 @@ public class ResourceServiceImpl implements ResourceService {
         dto.setCreateTime(resource.getCreateTime());
         dto.setUpdateTime(resource.getUpdateTime());
         
-        // 查询作者信息
-        User author = userMapper.selectById(resource.getAuthorId());
         if (author != null) {
             dto.setAuthorName(author.getNickname() != null ? author.getNickname() : author.getUsername());
             dto.setAuthorAvatar(author.getAvatar());
         }
         
-        // 查询标签
-        LambdaQueryWrapper<ResourceTag> tagWrapper = new LambdaQueryWrapper<>();
-        tagWrapper.eq(ResourceTag::getResourceId, resource.getId());
-        List<ResourceTag> tags = resourceTagMapper.selectList(tagWrapper);
-        dto.setTags(tags.stream().map(ResourceTag::getTagName).collect(Collectors.toList()));
-        
-        // 如果用户已登录，检查是否已点赞和收藏
-        if (currentUserId != null) {
-            // 检查是否已点赞
-            LambdaQueryWrapper<Like> likeWrapper = new LambdaQueryWrapper<>();
-            likeWrapper.eq(Like::getResourceId, resource.getId());
-            likeWrapper.eq(Like::getUserId, currentUserId);
-            dto.setIsLiked(likeMapper.selectOne(likeWrapper) != null);
-            
-            // 检查是否已收藏
-            LambdaQueryWrapper<Favorite> favoriteWrapper = new LambdaQueryWrapper<>();
-            favoriteWrapper.eq(Favorite::getResourceId, resource.getId());
-            favoriteWrapper.eq(Favorite::getUserId, currentUserId);
-            dto.setIsFavorited(favoriteMapper.selectOne(favoriteWrapper) != null);
-        } else {
-            dto.setIsLiked(false);
-            dto.setIsFavorited(false);
-        }
-        
         return dto;
     }
     
@@ -272,6 +413,8 @@ public class ResourceServiceImpl implements ResourceService {
         resource.setCreateTime(LocalDateTime.now());
         resource.setUpdateTime(LocalDateTime.now());
         resourceMapper.insert(resource);
+        // 待审核的资源不计入分类计数器
+        pageCountService.onCreated(CountScope.RESOURCE, "APPROVED".equals(resource.getStatus()) ? resource.getCategory() : null);
         return resource;
     }
     
@@ -280,6 +423,7 @@ public class ResourceServiceImpl implements ResourceService {
     public Resource updateResource(Resource resource) {
         resource.setUpdateTime(LocalDateTime.now());
         resourceMapper.updateById(resource);
+        pageCountService.evict(CountScope.RESOURCE);
         return resource;
     }
     
@@ -287,27 +431,21 @@ public class ResourceServiceImpl implements ResourceService {
     @IndexToElasticsearch(type = IndexToElasticsearch.IndexType.RESOURCE, onDelete = true)
     public void deleteResource(Long id) {
         resourceMapper.deleteById(id);
+        pageCountService.evict(CountScope.RESOURCE);
     }
     
     @Override
     @Transactional
     public void likeResource(Long resourceId, Long userId) {
-        LambdaQueryWrapper<Like> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Like::getResourceId, resourceId);
-        wrapper.eq(Like::getUserId, userId);
+        Like like = new Like();
+        like.setUserId(userId);
+        like.setResourceId(resourceId);
+        like.setCreateTime(LocalDateTime.now());
         
-        if (likeMapper.selectOne(wrapper) == null) {
-            Like like = new Like();
-            like.setUserId(userId);
-            like.setResourceId(resourceId);
-            like.setCreateTime(LocalDateTime.now());
-            likeMapper.insert(like);
-            
-            Resource resource = resourceMapper.selectById(resourceId);
-            if (resource != null) {
-            resource.setLikeCount(resource.getLikeCount() + 1);
-            resourceMapper.updateById(resource);
-            }
+        // 唯一索引保证幂等，只有真正新增点赞时才累加计数
+        if (likeMapper.insertIgnore(like) > 0) {
+            resourceMapper.incrementLikeCount(resourceId, 1);
+            engagementCacheService.onEngaged(userId, EngagementType.RESOURCE_LIKE, resourceId);
         }
     }
     
@@ -318,37 +456,24 @@ public class ResourceServiceImpl implements ResourceService {
         wrapper.eq(Like::getResourceId, resourceId);
         wrapper.eq(Like::getUserId, userId);
         
-        Like existingLike = likeMapper.selectOne(wrapper);
-        if (existingLike != null) {
-        likeMapper.delete(wrapper);
-        
-        Resource resource = resourceMapper.selectById(resourceId);
-            if (resource != null) {
-        resource.setLikeCount(Math.max(0, resource.getLikeCount() - 1));
-        resourceMapper.updateById(resource);
-            }
+        int deleted = likeMapper.delete(wrapper);
+        if (deleted > 0) {
+            resourceMapper.incrementLikeCount(resourceId, -deleted);
+            engagementCacheService.onDisengaged(userId, EngagementType.RESOURCE_LIKE, resourceId);
         }
     }
     
     @Override
     @Transactional
     public void favoriteResource(Long resourceId, Long userId) {
-        LambdaQueryWrapper<Favorite> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Favorite::getResourceId, resourceId);
-        wrapper.eq(Favorite::getUserId, userId);
+        Favorite favorite = new Favorite();
+        favorite.setUserId(userId);
+        favorite.setResourceId(resourceId);
+        favorite.setCreateTime(LocalDateTime.now());
         
-        if (favoriteMapper.selectOne(wrapper) == null) {
-            Favorite favorite = new Favorite();
-            favorite.setUserId(userId);
-            favorite.setResourceId(resourceId);
-            favorite.setCreateTime(LocalDateTime.now());
-            favoriteMapper.insert(favorite);
-            
-            Resource resource = resourceMapper.selectById(resourceId);
-            if (resource != null) {
-            resource.setFavoriteCount(resource.getFavoriteCount() + 1);
-            resourceMapper.updateById(resource);
-            }
+        if (favoriteMapper.insertIgnore(favorite) > 0) {
+            resourceMapper.incrementFavoriteCount(resourceId, 1);
+            engagementCacheService.onEngaged(userId, EngagementType.RESOURCE_FAVORITE, resourceId);
         }
     }
     
@@ -359,15 +484,10 @@ public class ResourceServiceImpl implements ResourceService {
         wrapper.eq(Favorite::getResourceId, resourceId);
         wrapper.eq(Favorite::getUserId, userId);
         
-        Favorite existingFavorite = favoriteMapper.selectOne(wrapper);
-        if (existingFavorite != null) {
-        favoriteMapper.delete(wrapper);
-        
-        Resource resource = resourceMapper.selectById(resourceId);
-            if (resource != null) {
-        resource.setFavoriteCount(Math.max(0, resource.getFavoriteCount() - 1));
-        resourceMapper.updateById(resource);
-            }
+        int deleted = favoriteMapper.delete(wrapper);
+        if (deleted > 0) {
+            resourceMapper.incrementFavoriteCount(resourceId, -deleted);
+            engagementCacheService.onDisengaged(userId, EngagementType.RESOURCE_FAVORITE, resourceId);
         }
     }
     
@@ -380,11 +500,7 @@ public class ResourceServiceImpl implements ResourceService {
         log.setCreateTime(LocalDateTime.now());
         downloadLogMapper.insert(log);
         
-        Resource resource = resourceMapper.selectById(resourceId);
-        if (resource != null) {
-        resource.setDownloadCount(resource.getDownloadCount() + 1);
-        resourceMapper.updateById(resource);
-        }
+        resourceMapper.incrementDownloadCount(resourceId, 1);
     }
 }
 
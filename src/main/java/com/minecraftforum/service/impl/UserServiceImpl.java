@@ -1,18 +1,16 @@
 package com.minecraftforum.service.impl;
 
-import com.aliyun.oss.OSS;
-import com.aliyun.oss.OSSClientBuilder;
-import com.aliyun.oss.model.PutObjectRequest;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.minecraftforum.config.OssConfig;
 import com.minecraftforum.dto.LoginRequest;
 import com.minecraftforum.dto.RegisterRequest;
-import com.minecraftforum.entity.Permission;
 import com.minecraftforum.entity.User;
 import com.minecraftforum.mapper.UserMapper;
-import com.minecraftforum.service.PermissionService;
+import com.minecraftforum.service.PageCountService;
+import com.minecraftforum.service.PageCountService.CountScope;
+import com.minecraftforum.service.RolePermissionCacheService;
+import com.minecraftforum.service.StorageBackend;
 import com.minecraftforum.service.UserService;
 import com.minecraftforum.util.TokenUtil;
 import com.minecraftforum.util.SnowflakeIdGenerator;
@@ -25,7 +23,6 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import java.time.LocalDateTime;
 
@@ -36,10 +33,11 @@ public class UserServiceImpl implements UserService {
     
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
-    private final OssConfig ossConfig;
+    private final StorageBackend storageBackend;
     private final SnowflakeIdGenerator idGenerator = SnowflakeIdGenerator.getInstance();
     private final TokenUtil tokenUtil;
-    private final PermissionService permissionService;
+    private final RolePermissionCacheService rolePermissionCacheService;
+    private final PageCountService pageCountService;
     
     @Override
     public User register(RegisterRequest request) {
@@ -68,6 +66,7 @@ public class UserServiceImpl implements UserService {
         user.setUpdateTime(LocalDateTime.now());
         
         userMapper.insert(user);
+        pageCountService.evict(CountScope.USER);
         return user;
     }
     
@@ -85,14 +84,11 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("账号已被禁用");
         }
         
-        // 获取用户的所有权限
-        List<Permission> permissions = permissionService.getUserPermissions(user.getId());
-        List<String> permissionCodes = permissions.stream()
-                .map(Permission::getCode)
-                .collect(Collectors.toList());
+        // 获取用户的角色，Token 中只保存角色，权限在请求时按角色解析
+        List<Long> roleIds = rolePermissionCacheService.getUserRoleIds(user.getId());
         
-        // 生成包含权限的Token（使用 UUID 和 Redis）
-        return tokenUtil.generateToken(user.getId(), user.getUsername(), permissionCodes);
+        // 生成包含角色的Token（使用 UUID 和 Redis）
+        return tokenUtil.generateToken(user.getId(), user.getUsername(), roleIds);
     }
     
     @Override
@@ -129,7 +125,7 @@ public class UserServiceImpl implements UserService {
         wrapper.orderByDesc(User::getCreateTime);
         
         // 查询所有用户（包括已删除的，如果表有deleted字段，MyBatis Plus会自动处理）
-        IPage<User> result = userMapper.selectPage(page, wrapper);
+        IPage<User> result = pageCountService.selectPage(userMapper, page, wrapper, CountScope.USER, "keyword=" + keyword);
         
         // 清除密码信息
         result.getRecords().forEach(u -> u.setPassword(null));
@@ -174,6 +170,7 @@ public class UserServiceImpl implements UserService {
         user.setUpdateTime(LocalDateTime.now());
         
         userMapper.insert(user);
+        pageCountService.evict(CountScope.USER);
         user.setPassword(null); // 清除密码信息
         return user;
     }
@@ -212,41 +209,15 @@ public class UserServiceImpl implements UserService {
         // 使用雪花算法生成唯一文件名
         String uniqueFileName = idGenerator.nextId() + extension;
         
-        // 构建 OSS 对象键（路径）- 头像存储在 avatar 目录
+        // 构建对象键（路径）- 头像存储在 avatar 目录
         String objectKey = "avatar/" + uniqueFileName;
         
-        OSS ossClient = null;
         InputStream inputStream = null;
         
         try {
-            // 创建 OSS 客户端
-            ossClient = new OSSClientBuilder().build(
-                    ossConfig.getEndpoint(),
-                    ossConfig.getAccessKeyId(),
-                    ossConfig.getAccessKeySecret()
-            );
-            
             // 上传文件
             inputStream = file.getInputStream();
-            PutObjectRequest putObjectRequest = new PutObjectRequest(
-                    ossConfig.getBucketName(),
-                    objectKey,
-                    inputStream
-            );
-            ossClient.putObject(putObjectRequest);
-            
-            // 构建文件访问 URL
-            String domain = ossConfig.getDomain();
-            String avatarUrl;
-            if (domain != null && domain.endsWith("/")) {
-                avatarUrl = domain + objectKey;
-            } else if (domain != null) {
-                avatarUrl = domain + "/" + objectKey;
-            } else {
-                // 如果没有配置域名，使用 endpoint 和 bucket 构建
-                String endpoint = ossConfig.getEndpoint().replace("https://", "").replace("http://", "");
-                avatarUrl = "https://" + ossConfig.getBucketName() + "." + endpoint + "/" + objectKey;
-            }
+            String avatarUrl = storageBackend.upload(objectKey, inputStream, file.getSize(), file.getContentType());
             
             // 更新用户头像URL
             User user = userMapper.selectById(userId);
@@ -272,10 +243,6 @@ public class UserServiceImpl implements UserService {
                     log.error("关闭输入流失败", e);
                 }
             }
-            // 关闭 OSS 客户端
-            if (ossClient != null) {
-                ossClient.shutdown();
-            }
         }
     }
 }
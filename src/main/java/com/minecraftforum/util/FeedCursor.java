@@ -0,0 +1,88 @@
+package com.minecraftforum.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * 信息流游标
+ * 列表按 (排序字段, id) 倒序翻页，游标记录上一页最后一条数据的排序字段值和ID，
+ * 以 Base64 编码后作为不透明字符串返回给客户端；翻页时按索引定位，不使用 OFFSET，也不统计总数
+ */
+public final class FeedCursor {
+    
+    private static final char SEPARATOR = ':';
+    
+    private final String sortValue; // 排序字段值，null 表示该条数据的排序字段为空
+    private final long id;
+    
+    private FeedCursor(String sortValue, long id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+    
+    /**
+     * 根据最后一条数据生成游标
+     */
+    public static String encode(Object sortValue, Long id) {
+        String raw = (sortValue != null ? sortValue.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解析客户端传入的游标
+     * @return 未传游标（第一页）返回 null
+     */
+    public static FeedCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // 排序字段值（如时间）本身可能包含分隔符，以最后一个分隔符为准
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index < 0) {
+                throw new IllegalArgumentException("游标格式错误");
+            }
+            String sortValue = raw.substring(0, index);
+            long id = Long.parseLong(raw.substring(index + 1));
+            return new FeedCursor(sortValue.isEmpty() ? null : sortValue, id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("游标格式错误");
+        }
+    }
+    
+    /**
+     * 追加游标条件和排序：排序字段倒序，相同时按ID倒序（排序字段为空的数据排在最后）
+     * @param cursor 游标，null 表示第一页
+     * @param valueParser 将游标中的排序字段值还原为字段类型
+     */
+    public static <T> void apply(LambdaQueryWrapper<T> wrapper, FeedCursor cursor,
+                                 SFunction<T, ?> sortColumn, SFunction<T, ?> idColumn,
+                                 Function<String, ?> valueParser) {
+        if (cursor != null) {
+            if (cursor.sortValue == null) {
+                wrapper.and(w -> w.isNull(sortColumn).lt(idColumn, cursor.id));
+            } else {
+                Object value = parseValue(cursor.sortValue, valueParser);
+                wrapper.and(w -> w.lt(sortColumn, value)
+                        .or(o -> o.eq(sortColumn, value).lt(idColumn, cursor.id))
+                        .or().isNull(sortColumn));
+            }
+        }
+        wrapper.orderByDesc(sortColumn);
+        wrapper.orderByDesc(idColumn);
+    }
+    
+    private static Object parseValue(String sortValue, Function<String, ?> valueParser) {
+        try {
+            return valueParser.apply(sortValue);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("游标格式错误");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.minecraftforum.util;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 进程内本地缓存
+ * 基于 ConcurrentHashMap，支持按写入时间过期和最大条目数限制，读操作无锁
+ * 超出容量时先清理过期条目，仍超出则淘汰最早写入的一批条目
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LocalCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> map = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+
+    /**
+     * @param maxSize   最大条目数
+     * @param ttlMillis 写入后过期时间（毫秒），小于等于 0 表示不过期
+     */
+    public LocalCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize 必须大于 0");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期返回 null
+     */
+    public V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            map.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * 获取缓存值，不存在时通过 loader 加载并写入缓存（loader 返回 null 时不缓存）
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        long now = System.currentTimeMillis();
+        map.put(key, new Entry<>(value, now, ttlMillis > 0 ? now + ttlMillis : Long.MAX_VALUE));
+        if (map.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public void invalidate(K key) {
+        map.remove(key);
+    }
+
+    public void invalidateAll() {
+        map.clear();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    private synchronized void evict() {
+        if (map.size() <= maxSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        map.entrySet().removeIf(e -> e.getValue().isExpired(now));
+        if (map.size() <= maxSize) {
+            return;
+        }
+        // 仍超出容量：淘汰最早写入的条目，降到容量的 90%，避免每次写入都触发淘汰
+        int removeCount = map.size() - (int) (maxSize * 0.9);
+        List<K> oldestKeys = map.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().createTime))
+                .limit(removeCount)
+                .map(Map.Entry::getKey)
+                .toList();
+        oldestKeys.forEach(map::remove);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long createTime;
+        private final long expireTime;
+
+        private Entry(V value, long createTime, long expireTime) {
+            this.value = value;
+            this.createTime = createTime;
+            this.expireTime = expireTime;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expireTime;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.minecraftforum.util;
 
-import com.aliyun.oss.OSS;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
@@ -26,19 +25,6 @@ public class ResourceUtil {
         }
     }
     
-    /**
-     * 安全关闭 OSS 客户端
-     */
-    public static void shutdownQuietly(OSS ossClient) {
-        if (ossClient != null) {
-            try {
-                ossClient.shutdown();
-            } catch (Exception e) {
-                log.warn("关闭 OSS 客户端失败", e);
-            }
-        }
-    }
-    
     /**
      * 安全关闭 Closeable 资源
      */
@@ -51,13 +37,5 @@ public class ResourceUtil {
             }
         }
     }
-    
-    /**
-     * 同时关闭输入流和 OSS 客户端
-     */
-    public static void closeResources(InputStream inputStream, OSS ossClient) {
-        closeQuietly(inputStream);
-        shutdownQuietly(ossClient);
-    }
 }
 
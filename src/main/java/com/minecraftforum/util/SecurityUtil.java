@@ -1,8 +1,11 @@
 package com.minecraftforum.util;
 
 import com.minecraftforum.entity.User;
+import com.minecraftforum.security.LoginUser;
+import com.minecraftforum.security.TokenSession;
 import com.minecraftforum.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -44,11 +47,27 @@ public class SecurityUtil {
         return null;
     }
     
+    /**
+     * 获取当前请求 Token 对应的会话信息
+     */
+    private TokenSession getCurrentSession() {
+        String token = getTokenFromCurrentRequest();
+        return token != null ? tokenUtil.getSession(token) : null;
+    }
+    
     /**
      * 获取当前登录用户ID
      */
     public Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Token 认证时 principal 已携带用户ID
+        if (authentication != null && authentication.getPrincipal() instanceof LoginUser loginUser) {
+            return loginUser.getUserId();
+        }
+        // 匿名用户
+        if (authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
         if (authentication != null && authentication.isAuthenticated()) {
             String username = authentication.getName();
             User user = userService.getUserByUsername(username);
@@ -56,14 +75,25 @@ public class SecurityUtil {
         }
         
         // 如果SecurityContext中没有，尝试从Token获取
-        String token = getTokenFromCurrentRequest();
-        if (token != null && tokenUtil.isTokenValid(token)) {
-            return tokenUtil.getUserIdFromToken(token);
+        TokenSession session = getCurrentSession();
+        if (session != null) {
+            return session.getUserId();
         }
         
         return null;
     }
     
+    /**
+     * 获取当前登录用户的认证信息（未通过 Token 认证时返回 null）
+     */
+    public LoginUser getCurrentLoginUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof LoginUser loginUser) {
+            return loginUser;
+        }
+        return null;
+    }
+    
     /**
      * 获取当前登录用户
      */
@@ -84,9 +114,9 @@ public class SecurityUtil {
             return authentication.getName();
         }
         
-        String token = getTokenFromCurrentRequest();
-        if (token != null && tokenUtil.isTokenValid(token)) {
-            return tokenUtil.getUsernameFromToken(token);
+        TokenSession session = getCurrentSession();
+        if (session != null) {
+            return session.getUsername();
         }
         
         return null;
@@ -97,6 +127,10 @@ public class SecurityUtil {
      */
     public boolean hasPermission(String permission) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Token 认证时直接在预先构建的权限集合中查找
+        if (authentication != null && authentication.getPrincipal() instanceof LoginUser loginUser) {
+            return loginUser.hasPermission(permission);
+        }
         if (authentication != null) {
             return authentication.getAuthorities().stream()
                     .anyMatch(authority -> authority.getAuthority().equals(permission));
@@ -111,6 +145,9 @@ public class SecurityUtil {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null) {
             String roleWithPrefix = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+            if (authentication.getPrincipal() instanceof LoginUser loginUser) {
+                return loginUser.hasPermission(roleWithPrefix);
+            }
             return authentication.getAuthorities().stream()
                 .anyMatch(authority -> authority.getAuthority().equals(roleWithPrefix));
         }
@@ -3,14 +3,22 @@ package com.minecraftforum.util;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.minecraftforum.config.TokenConfig;
+import com.minecraftforum.security.TokenSession;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -30,14 +38,24 @@ public class TokenUtil {
     private final TokenConfig tokenConfig;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
+    /**
+     * 本地 Token 会话缓存，短时间内的重复请求无需访问 Redis
+     */
+    private LocalCache<String, TokenSession> sessionCache;
+    
+    @PostConstruct
+    public void init() {
+        sessionCache = new LocalCache<>(tokenConfig.getSessionCacheSize(), tokenConfig.getSessionCacheTtl());
+    }
+    
     /**
      * 生成 Token（UUID）
      * @param userId 用户ID
      * @param username 用户名
-     * @param permissions 权限列表
+     * @param roleIds 角色ID列表（Token 只保存角色，权限按角色实时解析）
      * @return UUID Token
      */
-    public String generateToken(Long userId, String username, List<String> permissions) {
+    public String generateToken(Long userId, String username, List<Long> roleIds) {
         // 生成 UUID
         String token = UUID.randomUUID().toString().replace("-", "");
         
@@ -45,7 +63,7 @@ public class TokenUtil {
         Map<String, Object> tokenData = new HashMap<>();
         tokenData.put("userId", userId);
         tokenData.put("username", username);
-        tokenData.put("permissions", permissions);
+        tokenData.put("roleIds", roleIds);
         tokenData.put("createTime", System.currentTimeMillis());
         
         try {
@@ -71,6 +89,7 @@ public class TokenUtil {
                 if (oldTokens != null && !oldTokens.isEmpty()) {
                     for (String oldToken : oldTokens) {
                         redisTemplate.delete(TOKEN_PREFIX + oldToken);
+                        sessionCache.invalidate(oldToken);
                     }
                     redisTemplate.delete(userTokenKey);
                 }
@@ -89,13 +108,20 @@ public class TokenUtil {
     }
     
     /**
-     * 从 Token 获取用户ID
+     * 获取 Token 会话信息（一次 Redis 读取 + 一次解析）
+     * 优先读取本地短期缓存，其他节点上的 Token 变更最多延迟 jwt.session-cache-ttl 生效
+     * @return 会话信息，Token 不存在或已过期返回 null
      */
-    public Long getUserIdFromToken(String token) {
+    public TokenSession getSession(String token) {
         if (token == null || token.isEmpty()) {
             return null;
         }
         
+        TokenSession cached = sessionCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        
         try {
             String tokenKey = TOKEN_PREFIX + token;
             String tokenJson = redisTemplate.opsForValue().get(tokenKey);
@@ -103,85 +129,70 @@ public class TokenUtil {
                 return null;
             }
             
-            Map<String, Object> tokenData = objectMapper.readValue(tokenJson, new TypeReference<Map<String, Object>>() {});
-            Object userIdObj = tokenData.get("userId");
-            if (userIdObj instanceof Number) {
-                return ((Number) userIdObj).longValue();
+            TokenSession session = parseSession(token, tokenJson);
+            if (tokenConfig.getSessionCacheTtl() > 0) {
+                sessionCache.put(token, session);
             }
-            return null;
+            return session;
         } catch (Exception e) {
-            log.error("从 Token 获取用户ID失败", e);
+            log.error("读取 Token 会话失败", e);
             return null;
         }
     }
     
     /**
-     * 从 Token 获取用户名
+     * 从 Token 获取用户ID
      */
-    public String getUsernameFromToken(String token) {
-        if (token == null || token.isEmpty()) {
-            return null;
-        }
-        
-        try {
-            String tokenKey = TOKEN_PREFIX + token;
-            String tokenJson = redisTemplate.opsForValue().get(tokenKey);
-            if (tokenJson == null || tokenJson.isEmpty()) {
-                return null;
-            }
-            
-            Map<String, Object> tokenData = objectMapper.readValue(tokenJson, new TypeReference<Map<String, Object>>() {});
-            Object usernameObj = tokenData.get("username");
-            return usernameObj != null ? usernameObj.toString() : null;
-        } catch (Exception e) {
-            log.error("从 Token 获取用户名失败", e);
-            return null;
-        }
+    public Long getUserIdFromToken(String token) {
+        TokenSession session = getSession(token);
+        return session != null ? session.getUserId() : null;
     }
     
     /**
-     * 从 Token 获取权限列表
+     * 从 Token 获取用户名
      */
-    @SuppressWarnings("unchecked")
-    public List<String> getPermissionsFromToken(String token) {
-        if (token == null || token.isEmpty()) {
-            return List.of();
-        }
-        
-        try {
-            String tokenKey = TOKEN_PREFIX + token;
-            String tokenJson = redisTemplate.opsForValue().get(tokenKey);
-            if (tokenJson == null || tokenJson.isEmpty()) {
-                return List.of();
-            }
-            
-            Map<String, Object> tokenData = objectMapper.readValue(tokenJson, new TypeReference<Map<String, Object>>() {});
-            Object permissionsObj = tokenData.get("permissions");
-            if (permissionsObj instanceof List) {
-                return (List<String>) permissionsObj;
-            }
-            return List.of();
-        } catch (Exception e) {
-            log.error("从 Token 获取权限列表失败", e);
-            return List.of();
-        }
+    public String getUsernameFromToken(String token) {
+        TokenSession session = getSession(token);
+        return session != null ? session.getUsername() : null;
     }
     
     /**
      * 检查 Token 是否有效
      */
     public boolean isTokenValid(String token) {
-        if (token == null || token.isEmpty()) {
-            return false;
-        }
+        return getSession(token) != null;
+    }
+    
+    /**
+     * 解析 Redis 中的 Token 数据
+     */
+    @SuppressWarnings("unchecked")
+    private TokenSession parseSession(String token, String tokenJson) throws Exception {
+        Map<String, Object> tokenData = objectMapper.readValue(tokenJson, new TypeReference<Map<String, Object>>() {});
         
-        try {
-            String tokenKey = TOKEN_PREFIX + token;
-            return Boolean.TRUE.equals(redisTemplate.hasKey(tokenKey));
-        } catch (Exception e) {
-            log.error("检查 Token 有效性失败", e);
-            return false;
+        Object userIdObj = tokenData.get("userId");
+        Long userId = userIdObj instanceof Number ? ((Number) userIdObj).longValue() : null;
+        
+        Object usernameObj = tokenData.get("username");
+        String username = usernameObj != null ? usernameObj.toString() : null;
+        
+        // 旧格式 Token 直接保存权限列表，没有 roleIds
+        Object roleIdsObj = tokenData.get("roleIds");
+        List<Long> roleIds = null;
+        if (roleIdsObj instanceof List<?> list) {
+            roleIds = list.stream()
+                    .filter(id -> id instanceof Number)
+                    .map(id -> ((Number) id).longValue())
+                    .toList();
         }
+        
+        Object permissionsObj = tokenData.get("permissions");
+        List<String> permissions = permissionsObj instanceof List ? (List<String>) permissionsObj : List.of();
+        
+        Object createTimeObj = tokenData.get("createTime");
+        Long createTime = createTimeObj instanceof Number ? ((Number) createTimeObj).longValue() : null;
+        
+        return new TokenSession(token, userId, username, roleIds, permissions, createTime);
     }
     
     /**
@@ -193,11 +204,14 @@ public class TokenUtil {
         }
         
         try {
+            // 先读取用户ID，再删除 Token
+            Long userId = getUserIdFromToken(token);
+            
             String tokenKey = TOKEN_PREFIX + token;
             redisTemplate.delete(tokenKey);
+            sessionCache.invalidate(token);
             
             // 从用户的 Token 列表中移除
-            Long userId = getUserIdFromToken(token);
             if (userId != null) {
                 String userTokenKey = USER_TOKEN_PREFIX + userId;
                 redisTemplate.opsForSet().remove(userTokenKey, token);
@@ -208,9 +222,10 @@ public class TokenUtil {
     }
     
     /**
-     * 更新 Token 中的权限列表（不更新 UUID）
+     * 更新 Token 中的角色列表（不更新 UUID）
+     * 旧格式 Token 中的权限列表同时移除，之后按角色解析权限；使用 SET XX KEEPTTL 保留剩余过期时间
      */
-    public void updateTokenPermissions(String token, List<String> permissions) {
+    public void updateTokenRoles(String token, List<Long> roleIds) {
         if (token == null || token.isEmpty()) {
             return;
         }
@@ -223,40 +238,69 @@ public class TokenUtil {
             }
             
             Map<String, Object> tokenData = objectMapper.readValue(tokenJson, new TypeReference<Map<String, Object>>() {});
-            tokenData.put("permissions", permissions);
+            tokenData.put("roleIds", roleIds);
+            tokenData.remove("permissions");
             
             String updatedTokenJson = objectMapper.writeValueAsString(tokenData);
-            
-            // 获取剩余过期时间
-            Long expire = redisTemplate.getExpire(tokenKey, TimeUnit.SECONDS);
-            if (expire != null && expire > 0) {
-                redisTemplate.opsForValue().set(tokenKey, updatedTokenJson, expire, TimeUnit.SECONDS);
-                log.debug("更新 Token 权限: token={}, permissions={}", token, permissions);
-            }
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> ((StringRedisConnection) connection)
+                    .set(tokenKey, updatedTokenJson, Expiration.keepTtl(), SetOption.ifPresent()));
+            sessionCache.invalidate(token);
+            log.debug("更新 Token 角色: token={}, roleIds={}", token, roleIds);
         } catch (Exception e) {
-            log.error("更新 Token 权限失败", e);
+            log.error("更新 Token 角色失败", e);
         }
     }
     
     /**
-     * 更新用户所有 Token 的权限
+     * 更新用户所有 Token 的角色（用户角色变更时调用）
+     * 读取和写回 Token 数据各通过一次流水线完成；写回使用 SET XX KEEPTTL，保留原有过期时间，
+     * 期间已过期或被删除的 Token 不会被重新写入，旧格式 Token 中的权限列表同时移除
      */
-    public void updateUserAllTokensPermissions(Long userId, List<String> permissions) {
+    public void updateUserAllTokensRoles(Long userId, List<Long> roleIds) {
         try {
-            String userTokenKey = USER_TOKEN_PREFIX + userId;
-            List<String> tokens = redisTemplate.opsForSet().members(userTokenKey)
-                .stream()
-                .map(String::valueOf)
-                .toList();
+            Set<String> members = redisTemplate.opsForSet().members(USER_TOKEN_PREFIX + userId);
+            if (members == null || members.isEmpty()) {
+                return;
+            }
+            List<String> tokens = new ArrayList<>(members);
             
-            if (tokens != null && !tokens.isEmpty()) {
+            List<Object> tokenJsons = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
                 for (String token : tokens) {
-                    updateTokenPermissions(token, permissions);
+                    stringConnection.get(TOKEN_PREFIX + token);
+                }
+                return null;
+            });
+            
+            Map<String, String> updated = new HashMap<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                Object tokenJson = tokenJsons.get(i);
+                if (!(tokenJson instanceof String json) || json.isEmpty()) {
+                    continue;
+                }
+                try {
+                    Map<String, Object> tokenData = objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+                    tokenData.put("roleIds", roleIds);
+                    tokenData.remove("permissions");
+                    updated.put(TOKEN_PREFIX + tokens.get(i), objectMapper.writeValueAsString(tokenData));
+                } catch (Exception e) {
+                    log.warn("解析 Token 数据失败，跳过: token={}", tokens.get(i));
                 }
-                log.info("更新用户所有 Token 权限: userId={}, tokenCount={}", userId, tokens.size());
             }
+            
+            if (!updated.isEmpty()) {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                    for (Map.Entry<String, String> entry : updated.entrySet()) {
+                        stringConnection.set(entry.getKey(), entry.getValue(), Expiration.keepTtl(), SetOption.ifPresent());
+                    }
+                    return null;
+                });
+            }
+            tokens.forEach(sessionCache::invalidate);
+            log.info("更新用户所有 Token 角色: userId={}, tokenCount={}", userId, updated.size());
         } catch (Exception e) {
-            log.error("更新用户所有 Token 权限失败", e);
+            log.error("更新用户所有 Token 角色失败", e);
         }
     }
     
@@ -274,6 +318,7 @@ public class TokenUtil {
             if (tokens != null && !tokens.isEmpty()) {
                 for (String token : tokens) {
                     redisTemplate.delete(TOKEN_PREFIX + token);
+                    sessionCache.invalidate(token);
                 }
             }
             redisTemplate.delete(userTokenKey);
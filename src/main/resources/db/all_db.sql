@@ -188,7 +188,11 @@ CREATE TABLE `forum_post`  (
   INDEX `idx_author_id`(`author_id` ASC) USING BTREE,
   INDEX `idx_category`(`category` ASC) USING BTREE,
   INDEX `idx_status`(`status` ASC) USING BTREE,
-  INDEX `idx_create_time`(`create_time` ASC) USING BTREE
+  INDEX `idx_create_time`(`create_time` ASC) USING BTREE,
+  INDEX `idx_status_create_time_id`(`status` ASC, `create_time` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_status_view_count_id`(`status` ASC, `view_count` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_status_like_count_id`(`status` ASC, `like_count` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_category_status_create_time_id`(`category` ASC, `status` ASC, `create_time` ASC, `id` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 5 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '论坛帖子表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -248,10 +252,10 @@ CREATE TABLE `like`  (
   `reply_id` bigint(20) NULL DEFAULT NULL COMMENT '回复ID',
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   PRIMARY KEY (`id`) USING BTREE,
-  INDEX `idx_user_resource`(`user_id` ASC, `resource_id` ASC) USING BTREE,
-  INDEX `idx_user_post`(`user_id` ASC, `post_id` ASC) USING BTREE,
-  INDEX `idx_user_comment`(`user_id` ASC, `comment_id` ASC) USING BTREE,
-  INDEX `idx_user_reply`(`user_id` ASC, `reply_id` ASC) USING BTREE
+  UNIQUE INDEX `uk_user_resource`(`user_id` ASC, `resource_id` ASC) USING BTREE,
+  UNIQUE INDEX `uk_user_post`(`user_id` ASC, `post_id` ASC) USING BTREE,
+  UNIQUE INDEX `uk_user_comment`(`user_id` ASC, `comment_id` ASC) USING BTREE,
+  UNIQUE INDEX `uk_user_reply`(`user_id` ASC, `reply_id` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 25 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '点赞表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -385,7 +389,11 @@ CREATE TABLE `resource`  (
   INDEX `idx_author_id`(`author_id` ASC) USING BTREE,
   INDEX `idx_category`(`category` ASC) USING BTREE,
   INDEX `idx_status`(`status` ASC) USING BTREE,
-  INDEX `idx_create_time`(`create_time` ASC) USING BTREE
+  INDEX `idx_create_time`(`create_time` ASC) USING BTREE,
+  INDEX `idx_status_create_time_id`(`status` ASC, `create_time` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_status_download_count_id`(`status` ASC, `download_count` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_status_like_count_id`(`status` ASC, `like_count` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_category_status_create_time_id`(`category` ASC, `status` ASC, `create_time` ASC, `id` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 19 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '资源表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -638,6 +646,7 @@ CREATE TABLE `sys_file`  (
   `file_url` varchar(500) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '上传到 OSS 的访问 URL',
   `file_size` bigint(20) NOT NULL COMMENT '文件大小（单位：字节）',
   `file_type` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL COMMENT '文件类型（例如：image/png）',
+  `content_hash` char(32) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL COMMENT '文件内容的MD5（十六进制），作为下载的 ETag',
   `create_user` bigint(20) NULL DEFAULT NULL COMMENT '创建人',
   `update_user` bigint(20) NULL DEFAULT NULL COMMENT '修改人',
   `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
@@ -651,17 +660,17 @@ CREATE TABLE `sys_file`  (
 -- ----------------------------
 -- Records of sys_file
 -- ----------------------------
-INSERT INTO `sys_file` VALUES (2, 9, '抢关注.txt', '247495410921377792.txt', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/2474915410921377792.txt', 755, 'text/plain', 5, 5, '2025-11-14 06:58:25', '2025-11-17 04:56:58');
-INSERT INTO `sys_file` VALUES (3, 10, '抢关注.txt', '247498030738182144.txt', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/2474198030738182144.txt', 755, 'text/plain', 5, 5, '2025-11-14 07:08:49', '2025-11-17 04:57:00');
-INSERT INTO `sys_file` VALUES (4, 11, '抢关注.txt', '247521564927594496.txt', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247521564927594496.txt', 755, 'text/plain', 5, 5, '2025-11-14 08:42:21', '2025-11-14 08:42:21');
-INSERT INTO `sys_file` VALUES (5, 11, 'app.so', '247521568232706048.so', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247521568232706048.so', 7668640, 'application/octet-stream', 5, 5, '2025-11-14 08:42:22', '2025-11-14 08:42:22');
-INSERT INTO `sys_file` VALUES (7, 12, 'mrzh_250918213951_449.jpg', '247529914272714752.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247529914272714752.jpg', 701953, 'image/jpeg', 5, 5, '2025-11-14 09:15:31', '2025-11-14 09:15:31');
-INSERT INTO `sys_file` VALUES (12, 12, 'mrzh_250918213951_449.jpg', '247567512101851136.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247567512101851136.jpg', 701953, 'image/jpeg', 5, 5, '2025-11-14 11:44:55', '2025-11-14 11:44:55');
-INSERT INTO `sys_file` VALUES (13, 12, 'mrzh_250918213951_449.jpg', '247568276580864000.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247568276580864000.jpg', 701953, 'image/jpeg', 5, 5, '2025-11-14 11:47:57', '2025-11-14 11:47:57');
-INSERT INTO `sys_file` VALUES (18, 17, 'mrzh_250918213951_449.jpg', '247576694150533120.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247576694150533120.jpg', 701953, 'image/jpeg', 2, 2, '2025-11-14 12:21:24', '2025-11-14 12:21:24');
-INSERT INTO `sys_file` VALUES (19, 18, 'mrzh_250918213951_449.jpg', '247576993296683008.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247576993296683008.jpg', 701953, 'image/jpeg', 2, 2, '2025-11-14 12:22:36', '2025-11-14 12:22:36');
-INSERT INTO `sys_file` VALUES (20, 18, 'mrzh_250918213951_449.jpg', '247577306875432960.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247577306875432960.jpg', 701953, 'image/jpeg', 2, 2, '2025-11-14 12:23:50', '2025-11-14 12:23:50');
-INSERT INTO `sys_file` VALUES (21, 18, 'mrzh_250918213951_449.jpg', '247763091343937536.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247763091343937536.jpg', 701953, 'image/jpeg', 5, 5, '2025-11-15 00:42:05', '2025-11-15 00:42:05');
+INSERT INTO `sys_file` VALUES (2, 9, '抢关注.txt', '247495410921377792.txt', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/2474915410921377792.txt', 755, 'text/plain', NULL, 5, 5, '2025-11-14 06:58:25', '2025-11-17 04:56:58');
+INSERT INTO `sys_file` VALUES (3, 10, '抢关注.txt', '247498030738182144.txt', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/2474198030738182144.txt', 755, 'text/plain', NULL, 5, 5, '2025-11-14 07:08:49', '2025-11-17 04:57:00');
+INSERT INTO `sys_file` VALUES (4, 11, '抢关注.txt', '247521564927594496.txt', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247521564927594496.txt', 755, 'text/plain', NULL, 5, 5, '2025-11-14 08:42:21', '2025-11-14 08:42:21');
+INSERT INTO `sys_file` VALUES (5, 11, 'app.so', '247521568232706048.so', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247521568232706048.so', 7668640, 'application/octet-stream', NULL, 5, 5, '2025-11-14 08:42:22', '2025-11-14 08:42:22');
+INSERT INTO `sys_file` VALUES (7, 12, 'mrzh_250918213951_449.jpg', '247529914272714752.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247529914272714752.jpg', 701953, 'image/jpeg', NULL, 5, 5, '2025-11-14 09:15:31', '2025-11-14 09:15:31');
+INSERT INTO `sys_file` VALUES (12, 12, 'mrzh_250918213951_449.jpg', '247567512101851136.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247567512101851136.jpg', 701953, 'image/jpeg', NULL, 5, 5, '2025-11-14 11:44:55', '2025-11-14 11:44:55');
+INSERT INTO `sys_file` VALUES (13, 12, 'mrzh_250918213951_449.jpg', '247568276580864000.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247568276580864000.jpg', 701953, 'image/jpeg', NULL, 5, 5, '2025-11-14 11:47:57', '2025-11-14 11:47:57');
+INSERT INTO `sys_file` VALUES (18, 17, 'mrzh_250918213951_449.jpg', '247576694150533120.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247576694150533120.jpg', 701953, 'image/jpeg', NULL, 2, 2, '2025-11-14 12:21:24', '2025-11-14 12:21:24');
+INSERT INTO `sys_file` VALUES (19, 18, 'mrzh_250918213951_449.jpg', '247576993296683008.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247576993296683008.jpg', 701953, 'image/jpeg', NULL, 2, 2, '2025-11-14 12:22:36', '2025-11-14 12:22:36');
+INSERT INTO `sys_file` VALUES (20, 18, 'mrzh_250918213951_449.jpg', '247577306875432960.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247577306875432960.jpg', 701953, 'image/jpeg', NULL, 2, 2, '2025-11-14 12:23:50', '2025-11-14 12:23:50');
+INSERT INTO `sys_file` VALUES (21, 18, 'mrzh_250918213951_449.jpg', '247763091343937536.jpg', 'https://minecraft-forum.oss-cn-shenzhen.aliyuncs.com/files/247763091343937536.jpg', 701953, 'image/jpeg', NULL, 5, 5, '2025-11-15 00:42:05', '2025-11-15 00:42:05');
 
 -- ----------------------------
 -- Table structure for user
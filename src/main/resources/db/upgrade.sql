@@ -0,0 +1,46 @@
+/*
+ 已有数据库的增量升级脚本
+ 新部署直接导入 all_db.sql 即可，已有数据库按顺序执行下列语句
+*/
+
+SET NAMES utf8mb4;
+
+-- ----------------------------
+-- 点赞表：用户与点赞目标建立唯一索引，点赞写入改为幂等的 INSERT IGNORE
+-- ----------------------------
+-- 清理历史重复点赞，保留最早的一条
+DELETE l1 FROM `like` l1 JOIN `like` l2 ON l1.user_id = l2.user_id AND l1.resource_id = l2.resource_id AND l1.id > l2.id;
+DELETE l1 FROM `like` l1 JOIN `like` l2 ON l1.user_id = l2.user_id AND l1.post_id = l2.post_id AND l1.id > l2.id;
+DELETE l1 FROM `like` l1 JOIN `like` l2 ON l1.user_id = l2.user_id AND l1.comment_id = l2.comment_id AND l1.id > l2.id;
+DELETE l1 FROM `like` l1 JOIN `like` l2 ON l1.user_id = l2.user_id AND l1.reply_id = l2.reply_id AND l1.id > l2.id;
+
+ALTER TABLE `like`
+  DROP INDEX `idx_user_resource`,
+  DROP INDEX `idx_user_post`,
+  DROP INDEX `idx_user_comment`,
+  DROP INDEX `idx_user_reply`,
+  ADD UNIQUE INDEX `uk_user_resource`(`user_id` ASC, `resource_id` ASC) USING BTREE,
+  ADD UNIQUE INDEX `uk_user_post`(`user_id` ASC, `post_id` ASC) USING BTREE,
+  ADD UNIQUE INDEX `uk_user_comment`(`user_id` ASC, `comment_id` ASC) USING BTREE,
+  ADD UNIQUE INDEX `uk_user_reply`(`user_id` ASC, `reply_id` ASC) USING BTREE;
+
+-- ----------------------------
+-- 帖子表、资源表：游标分页按 (排序字段, id) 倒序翻页，为各排序方式建立联合索引
+-- ----------------------------
+ALTER TABLE `forum_post`
+  ADD INDEX `idx_status_create_time_id`(`status` ASC, `create_time` ASC, `id` ASC) USING BTREE,
+  ADD INDEX `idx_status_view_count_id`(`status` ASC, `view_count` ASC, `id` ASC) USING BTREE,
+  ADD INDEX `idx_status_like_count_id`(`status` ASC, `like_count` ASC, `id` ASC) USING BTREE,
+  ADD INDEX `idx_category_status_create_time_id`(`category` ASC, `status` ASC, `create_time` ASC, `id` ASC) USING BTREE;
+
+ALTER TABLE `resource`
+  ADD INDEX `idx_status_create_time_id`(`status` ASC, `create_time` ASC, `id` ASC) USING BTREE,
+  ADD INDEX `idx_status_download_count_id`(`status` ASC, `download_count` ASC, `id` ASC) USING BTREE,
+  ADD INDEX `idx_status_like_count_id`(`status` ASC, `like_count` ASC, `id` ASC) USING BTREE,
+  ADD INDEX `idx_category_status_create_time_id`(`category` ASC, `status` ASC, `create_time` ASC, `id` ASC) USING BTREE;
+
+-- ----------------------------
+-- 文件表：保存文件内容的MD5，用于下载的 ETag 和条件请求（历史文件为 NULL，只使用 Last-Modified）
+-- ----------------------------
+ALTER TABLE `sys_file`
+  ADD COLUMN `content_hash` char(32) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL COMMENT '文件内容的MD5（十六进制），作为下载的 ETag' AFTER `file_type`;